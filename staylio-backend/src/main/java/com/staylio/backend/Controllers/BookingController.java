@@ -1,6 +1,8 @@
 package com.staylio.backend.Controllers;
 
+import com.staylio.backend.dto.HotelAvailabilityDTO;
 import com.staylio.backend.model.Booking;
+import com.staylio.backend.Service.AvailabilityService;
 import com.staylio.backend.Service.BookingService;
 import com.staylio.backend.Service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +25,9 @@ public class BookingController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
     // Get all bookings
     @GetMapping
     public ResponseEntity<List<Booking>> getAllBookings() {
@@ -333,9 +338,12 @@ public class BookingController {
             LocalDate checkInDate = LocalDate.parse(checkIn);
             LocalDate checkOutDate = LocalDate.parse(checkOut);
 
-            boolean available = bookingService.checkAvailability(hotelId, checkInDate, checkOutDate, rooms);
+            HotelAvailabilityDTO availability = availabilityService
+                    .getAvailability(List.of(hotelId), checkInDate, checkOutDate, rooms).get(hotelId);
 
-            response.put("available", available);
+            response.put("available", availability.isAvailable());
+            response.put("remainingRooms", availability.getRemainingRooms());
+            response.put("roomTypes", availability.getRoomTypes());
             response.put("hotelId", hotelId);
             response.put("checkIn", checkIn);
             response.put("checkOut", checkOut);
@@ -350,6 +358,36 @@ public class BookingController {
         }
     }
 
+    // Check availability for many hotels in one call (search results page)
+    @GetMapping("/availability/batch")
+    public ResponseEntity<Map<String, Object>> checkAvailabilityBatch(
+            @RequestParam List<Long> hotelIds,
+            @RequestParam String checkIn,
+            @RequestParam String checkOut,
+            @RequestParam(defaultValue = "1") Integer rooms) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            LocalDate checkInDate = LocalDate.parse(checkIn);
+            LocalDate checkOutDate = LocalDate.parse(checkOut);
+
+            Map<Long, HotelAvailabilityDTO> availability = availabilityService.getAvailability(hotelIds,
+                    checkInDate, checkOutDate, rooms);
+
+            response.put("checkIn", checkIn);
+            response.put("checkOut", checkOut);
+            response.put("rooms", rooms);
+            response.put("hotels", availability.values());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            response.put("error", "Availability check failed");
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
     // Get booking statistics
     @GetMapping("/stats")
     public ResponseEntity<BookingService.BookingStats> getBookingStats() {
@@ -1,6 +1,7 @@
 package com.staylio.backend.Controllers;
 
 import com.staylio.backend.Service.ChatbotService;
+import com.staylio.backend.Service.ImageVariants;
 import com.staylio.backend.dto.ChatbotRequest;
 import com.staylio.backend.dto.ChatbotResponse;
 import com.staylio.backend.dto.HotelDTO;
@@ -11,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,9 +26,14 @@ public class ChatbotController {
     @Autowired
     private HotelRepository hotelRepository;
 
+    @Autowired
+    private ImageVariants imageVariants;
+
+    // Answered asynchronously: the request thread is released while the agent works.
+    // Agent failures surface as 502/503/504 through their ResponseStatusException.
     @PostMapping("/query")
-    public ResponseEntity<ChatbotResponse> query(@RequestBody ChatbotRequest request) {
-        return ResponseEntity.ok(chatbotService.processQuery(request));
+    public CompletableFuture<ResponseEntity<ChatbotResponse>> query(@RequestBody ChatbotRequest request) {
+        return chatbotService.processQuery(request).thenApply(ResponseEntity::ok);
     }
 
     // Endpoint for the Python agent to call to search hotels
@@ -48,6 +55,7 @@ public class ChatbotController {
         List<HotelDTO> dtos = hotels.stream()
                 .limit(20) // Limit to top 20 candidates for AI scoring
                 .map(HotelDTO::fromEntity)
+                .map(imageVariants::withSrcsets)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(dtos);
     }
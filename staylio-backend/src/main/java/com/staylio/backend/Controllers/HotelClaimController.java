@@ -5,6 +5,7 @@ import com.staylio.backend.model.HotelClaim;
 import com.staylio.backend.model.HotelClaim.ClaimStatus;
 import com.staylio.backend.Repo.HotelRepository;
 import com.staylio.backend.Service.HotelClaimService;
+import com.staylio.backend.Service.HotelService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +26,9 @@ public class HotelClaimController {
     @Autowired
     private HotelRepository hotelRepository;
 
+    @Autowired
+    private HotelService hotelService;
+
     @Autowired
     private com.staylio.backend.Service.EmailService emailService;
 
@@ -36,7 +40,7 @@ public class HotelClaimController {
     public ResponseEntity<Map<String, Object>> searchHotelsForClaiming(@RequestParam String keyword) {
         Map<String, Object> response = new HashMap<>();
         try {
-            List<Hotel> hotels = hotelRepository.searchUnclaimedHotels(keyword);
+            List<Hotel> hotels = hotelService.searchUnclaimedHotels(keyword);
             response.put("success", true);
             response.put("data", hotels);
             return ResponseEntity.ok(response);
@@ -1,14 +1,33 @@
 package com.staylio.backend.Controllers;
 
 import com.staylio.backend.Service.HotelService;
+import com.staylio.backend.Service.HotelSuggestService;
+import com.staylio.backend.Service.ImageVariants;
+import com.staylio.backend.Service.LandingPageService;
+import com.staylio.backend.Service.ReviewStatsService;
+import com.staylio.backend.dto.HotelCursor;
 import com.staylio.backend.dto.HotelDTO;
+import com.staylio.backend.dto.HotelSuggestionDTO;
+import com.staylio.backend.dto.HotelSummaryDTO;
+import com.staylio.backend.dto.HotelSummaryProjection;
+import com.staylio.backend.dto.PageResponse;
+import com.staylio.backend.dto.ReviewSummaryDTO;
+import com.staylio.backend.dto.SliceResponse;
 import com.staylio.backend.model.Hotel;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,15 +39,27 @@ public class HotelController {
     @Autowired
     private HotelService hotelService;
 
+    @Autowired
+    private HotelSuggestService hotelSuggestService;
+
+    @Autowired
+    private LandingPageService landingPageService;
+
     @Autowired
     private com.staylio.backend.Service.ReviewService reviewService;
 
+    @Autowired
+    private ReviewStatsService reviewStatsService;
+
+    @Autowired
+    private ImageVariants imageVariants;
+
     // Create hotel
     @PostMapping
     public ResponseEntity<?> createHotel(@RequestBody Hotel hotel) {
         try {
             Hotel createdHotel = hotelService.createHotel(hotel);
-            return ResponseEntity.status(HttpStatus.CREATED).body(HotelDTO.fromEntity(createdHotel));
+            return ResponseEntity.status(HttpStatus.CREATED).body(imageVariants.withSrcsets(HotelDTO.fromEntity(createdHotel)));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -38,13 +69,12 @@ public class HotelController {
 
     // Get all hotels
     @GetMapping
-    public ResponseEntity<List<HotelDTO>> getAllHotels() {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getAllHotels(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getAllHotels();
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getAllHotels(cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             e.printStackTrace(); // Log the actual error
             System.err.println("Error in getAllHotels: " + e.getMessage());
@@ -52,15 +82,35 @@ public class HotelController {
         }
     }
 
-    // Get landing page hotels
+    // Get landing page hotels (precomputed JSON; repeat visitors revalidate with If-None-Match)
     @GetMapping("/landing")
-    public ResponseEntity<List<HotelDTO>> getLandingPageHotels() {
+    public ResponseEntity<byte[]> getLandingPageHotels(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<Hotel> hotels = hotelService.getLandingPageHotels();
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            LandingPageService.LandingPayload landing = landingPageService.getPayload();
+            CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+            if (landing.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(landing.getEtag())
+                        .cacheControl(cacheControl)
+                        .build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(landing.getEtag())
+                    .cacheControl(cacheControl)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(landing.getBody());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Typeahead suggestions for the search box
+    @GetMapping("/suggest")
+    public ResponseEntity<List<HotelSuggestionDTO>> suggest(@RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        try {
+            return ResponseEntity.ok(hotelSuggestService.suggest(q, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -71,7 +121,7 @@ public class HotelController {
     public ResponseEntity<HotelDTO> getHotelById(@PathVariable Long id) {
         try {
             return hotelService.getHotelById(id)
-                    .map(hotel -> ResponseEntity.ok(HotelDTO.fromEntity(hotel)))
+                    .map(hotel -> ResponseEntity.ok(imageVariants.withSrcsets(HotelDTO.fromEntity(hotel))))
                     .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -83,7 +133,7 @@ public class HotelController {
     public ResponseEntity<HotelDTO> updateHotel(@PathVariable Long id, @RequestBody Hotel hotel) {
         try {
             Hotel updatedHotel = hotelService.updateHotel(id, hotel);
-            return ResponseEntity.ok(HotelDTO.fromEntity(updatedHotel));
+            return ResponseEntity.ok(imageVariants.withSrcsets(HotelDTO.fromEntity(updatedHotel)));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -106,13 +156,13 @@ public class HotelController {
 
     // Get hotels by host
     @GetMapping("/host/{hostId}")
-    public ResponseEntity<List<HotelDTO>> getHotelsByHost(@PathVariable Long hostId) {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getHotelsByHost(@PathVariable Long hostId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getHotelsByHost(hostId);
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getHotelsByHost(hostId, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -120,13 +170,13 @@ public class HotelController {
 
     // Get hotels by owner
     @GetMapping("/owner/{ownerId}")
-    public ResponseEntity<List<HotelDTO>> getHotelsByOwner(@PathVariable Long ownerId) {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getHotelsByOwner(@PathVariable Long ownerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getHotelsByOwner(ownerId);
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getHotelsByOwner(ownerId, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -134,13 +184,12 @@ public class HotelController {
 
     // Get active hotels
     @GetMapping("/active")
-    public ResponseEntity<List<HotelDTO>> getActiveHotels() {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getActiveHotels(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getActiveHotels();
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getActiveHotels(cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -148,13 +197,12 @@ public class HotelController {
 
     // Get featured hotels
     @GetMapping("/featured")
-    public ResponseEntity<List<HotelDTO>> getFeaturedHotels() {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getFeaturedHotels(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getFeaturedHotels();
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getFeaturedHotels(cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -162,13 +210,13 @@ public class HotelController {
 
     // Get hotels by city
     @GetMapping("/city/{city}")
-    public ResponseEntity<List<HotelDTO>> getHotelsByCity(@PathVariable String city) {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getHotelsByCity(@PathVariable String city,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getHotelsByCity(city);
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getHotelsByCity(city, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -176,13 +224,13 @@ public class HotelController {
 
     // Get hotels by state
     @GetMapping("/state/{state}")
-    public ResponseEntity<List<HotelDTO>> getHotelsByState(@PathVariable String state) {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getHotelsByState(@PathVariable String state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getHotelsByState(state);
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getHotelsByState(state, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -190,13 +238,13 @@ public class HotelController {
 
     // Get hotels by country
     @GetMapping("/country/{country}")
-    public ResponseEntity<List<HotelDTO>> getHotelsByCountry(@PathVariable String country) {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getHotelsByCountry(@PathVariable String country,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getHotelsByCountry(country);
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getHotelsByCountry(country, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -204,15 +252,15 @@ public class HotelController {
 
     // Get hotels by price range
     @GetMapping("/price-range")
-    public ResponseEntity<List<HotelDTO>> getHotelsByPriceRange(
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getHotelsByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getHotelsByPriceRange(minPrice, maxPrice);
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getHotelsByPriceRange(minPrice, maxPrice, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -220,13 +268,13 @@ public class HotelController {
 
     // Get hotels by minimum rating
     @GetMapping("/rating/{minRating}")
-    public ResponseEntity<List<HotelDTO>> getHotelsByMinimumRating(@PathVariable Double minRating) {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getHotelsByMinimumRating(@PathVariable Double minRating,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getHotelsByMinimumRating(minRating);
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getHotelsByMinimumRating(minRating, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -234,13 +282,13 @@ public class HotelController {
 
     // Get hotels by guest capacity
     @GetMapping("/capacity/{guests}")
-    public ResponseEntity<List<HotelDTO>> getHotelsByGuestCapacity(@PathVariable Integer guests) {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getHotelsByGuestCapacity(@PathVariable Integer guests,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getHotelsByGuestCapacity(guests);
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getHotelsByGuestCapacity(guests, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -248,13 +296,13 @@ public class HotelController {
 
     // Search hotels
     @GetMapping("/search")
-    public ResponseEntity<List<HotelDTO>> searchHotels(@RequestParam String keyword) {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> searchHotels(@RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.searchHotels(keyword);
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.searchHotels(keyword, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -262,13 +310,12 @@ public class HotelController {
 
     // Get hotels with available rooms
     @GetMapping("/available")
-    public ResponseEntity<List<HotelDTO>> getHotelsWithAvailableRooms() {
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getHotelsWithAvailableRooms(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Hotel> hotels = hotelService.getHotelsWithAvailableRooms();
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            return ResponseEntity.ok(toSlice(hotelService.getHotelsWithAvailableRooms(cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -276,16 +323,43 @@ public class HotelController {
 
     // Get nearby hotels
     @GetMapping("/nearby")
-    public ResponseEntity<List<HotelDTO>> getNearbyHotels(
+    public ResponseEntity<SliceResponse<HotelSummaryDTO>> getNearbyHotels(
             @RequestParam Double latitude,
             @RequestParam Double longitude,
-            @RequestParam(defaultValue = "10.0") Double radius) {
+            @RequestParam(defaultValue = "10.0") Double radius,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(toSlice(hotelService.getNearbyHotels(latitude, longitude, radius, cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Search hotels with rooms available for a date range
+    @GetMapping("/availability-search")
+    public ResponseEntity<?> searchAvailableHotels(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Integer guests,
+            @RequestParam String checkIn,
+            @RequestParam String checkOut,
+            @RequestParam(defaultValue = "1") Integer rooms,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "rating") String sort) {
         try {
-            List<Hotel> hotels = hotelService.getNearbyHotels(latitude, longitude, radius);
-            List<HotelDTO> hotelDTOs = hotels.stream()
-                    .map(HotelDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(hotelDTOs);
+            PageResponse<HotelSummaryDTO> response = PageResponse.fromPage(
+                    hotelService.searchAvailableHotels(city, minPrice, maxPrice, minRating, guests,
+                            LocalDate.parse(checkIn), LocalDate.parse(checkOut), rooms, page, size, sort),
+                    imageVariants::withSrcset);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -336,11 +410,25 @@ public class HotelController {
             }
 
             return ResponseEntity.ok(reviewService.addReview(review));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error adding review");
         }
     }
 
+    // Star distribution and recent averages for the hotel page (maintained as reviews are added)
+    @GetMapping("/{hotelId}/reviews/summary")
+    public ResponseEntity<ReviewSummaryDTO> getReviewSummary(@PathVariable Long hotelId) {
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic())
+                    .body(reviewStatsService.getSummary(hotelId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // Check Review Eligibility
     @GetMapping("/{hotelId}/review-eligibility")
     public ResponseEntity<?> checkReviewEligibility(@PathVariable Long hotelId, @RequestParam Long userId) {
@@ -355,6 +443,24 @@ public class HotelController {
         }
     }
 
+    // Map a keyset window to a response carrying the next-page cursor
+    private SliceResponse<HotelSummaryDTO> toSlice(Window<HotelSummaryProjection> window) {
+        List<HotelSummaryDTO> hotels = window.getContent().stream()
+                .map(HotelSummaryDTO::fromProjection)
+                .map(imageVariants::withSrcset)
+                .collect(Collectors.toList());
+        String nextCursor = window.isEmpty() ? null : HotelCursor.encode(window.positionAt(window.size() - 1));
+        return new SliceResponse<>(hotels, window.hasNext(), nextCursor);
+    }
+
+    // Offset-paged lists use the next page number as their cursor
+    private SliceResponse<HotelSummaryDTO> toSlice(Slice<HotelSummaryDTO> slice) {
+        List<HotelSummaryDTO> hotels = slice.getContent().stream()
+                .map(imageVariants::withSrcset)
+                .collect(Collectors.toList());
+        return new SliceResponse<>(hotels, slice.hasNext(), String.valueOf(slice.getNumber() + 1));
+    }
+
     // Inner class for claim status response
     public static class ClaimStatusResponse {
         private Long hotelId;
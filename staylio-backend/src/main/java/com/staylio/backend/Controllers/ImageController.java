@@ -0,0 +1,40 @@
+package com.staylio.backend.Controllers;
+
+import com.staylio.backend.Service.ImageVariantService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin(origins = "*")
+public class ImageController {
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    // Resized hotel photo; the URLs come from the srcsets in hotel responses. Spring answers
+    // If-None-Match with 304 from the ETag and Range requests with partial content.
+    @GetMapping("/{token}/{width}")
+    public ResponseEntity<Resource> getVariant(@PathVariable String token, @PathVariable int width) {
+        try {
+            ImageVariantService.Variant variant = imageVariantService.getVariant(token, width);
+            return ResponseEntity.ok()
+                    .eTag(variant.etag())
+                    .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                    .contentType(MediaType.IMAGE_JPEG)
+                    .body(variant.resource());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            System.err.println("Error serving image variant: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.staylio.backend.Controllers;
 
 import com.staylio.backend.Service.ReviewService;
+import com.staylio.backend.dto.ReviewDTO;
+import com.staylio.backend.dto.SliceResponse;
 import com.staylio.backend.model.Review;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/reviews")
 @CrossOrigin(origins = "*")
@@ -17,8 +17,14 @@ public class ReviewController {
     private ReviewService reviewService;
 
     @GetMapping("/hotel/{hotelId}")
-    public ResponseEntity<List<Review>> getHotelReviews(@PathVariable Long hotelId) {
-        return ResponseEntity.ok(reviewService.getReviewsByHotelId(hotelId));
+    public ResponseEntity<SliceResponse<ReviewDTO>> getHotelReviews(@PathVariable Long hotelId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(reviewService.getReviewsByHotelId(hotelId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -1,14 +1,26 @@
 package com.staylio.backend.Controllers;
 
 import com.staylio.backend.Service.WalletService;
+import com.staylio.backend.dto.SliceResponse;
 import com.staylio.backend.model.Wallet;
 import com.staylio.backend.model.WalletTransaction;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,21 +28,28 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class WalletController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor;
+
+    // The export can run far longer than spring.mvc.async.request-timeout allows other requests
+    @Value("${staylio.wallet.export-timeout:30m}")
+    private Duration exportTimeout;
+
+    // Wallet histories grow with every booking, so only the latest page is included;
+    // page on with /{admin|host/{id}|user/{id}}/transactions?cursor=<nextCursor>
+
     // Get Admin Wallet
     @GetMapping("/admin")
     public ResponseEntity<Map<String, Object>> getAdminWallet() {
         try {
-            Wallet wallet = walletService.getOrCreateAdminWallet();
-            List<WalletTransaction> transactions = walletService.getWalletTransactions(wallet.getId());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("wallet", wallet);
-            response.put("transactions", transactions);
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(walletResponse(walletService.getOrCreateAdminWallet(), false));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -40,14 +59,7 @@ public class WalletController {
     @GetMapping("/host/{hostId}")
     public ResponseEntity<Map<String, Object>> getHostWallet(@PathVariable Long hostId) {
         try {
-            Wallet wallet = walletService.getOrCreateHostWallet(hostId);
-            List<WalletTransaction> transactions = walletService.getWalletTransactions(wallet.getId());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("wallet", wallet);
-            response.put("transactions", transactions);
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(walletResponse(walletService.getOrCreateHostWallet(hostId), true));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -57,16 +69,128 @@ public class WalletController {
     @GetMapping("/user/{userId}")
     public ResponseEntity<Map<String, Object>> getUserWallet(@PathVariable Long userId) {
         try {
-            Wallet wallet = walletService.getOrCreateUserWallet(userId);
-            List<WalletTransaction> transactions = walletService.getWalletTransactions(wallet.getId());
+            return ResponseEntity.ok(walletResponse(walletService.getOrCreateUserWallet(userId), true));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    // Paged admin wallet history, newest first, optionally filtered by date range and type
+    @GetMapping("/admin/transactions")
+    public ResponseEntity<SliceResponse<WalletTransaction>> getAdminTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) WalletTransaction.TransactionType type) {
+        return transactionPage(walletService.getOrCreateAdminWallet(), cursor, size, from, to, type);
+    }
+
+    // Paged host wallet history
+    @GetMapping("/host/{hostId}/transactions")
+    public ResponseEntity<SliceResponse<WalletTransaction>> getHostTransactions(@PathVariable Long hostId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) WalletTransaction.TransactionType type) {
+        return transactionPage(walletService.getOrCreateHostWallet(hostId), cursor, size, from, to, type);
+    }
+
+    // Paged user wallet history
+    @GetMapping("/user/{userId}/transactions")
+    public ResponseEntity<SliceResponse<WalletTransaction>> getUserTransactions(@PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) WalletTransaction.TransactionType type) {
+        return transactionPage(walletService.getOrCreateUserWallet(userId), cursor, size, from, to, type);
+    }
+
+    // CSV export of all wallet transactions for finance, streamed as it is read. It has its
+    // own async timeout (staylio.wallet.export-timeout); once that passes the emitter is
+    // closed and the export stops at its next write.
+    @GetMapping("/transactions/export")
+    public ResponseEntity<ResponseBodyEmitter> exportTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) WalletTransaction.TransactionType type) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeout.toMillis());
+        taskExecutor.execute(() -> {
+            try (Writer writer = new EmitterWriter(emitter)) {
+                walletService.exportTransactions(from, to, type, writer);
+            } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+                return;
+            }
+            emitter.complete();
+        });
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"wallet-transactions.csv\"")
+                .contentType(CSV)
+                .body(emitter);
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("wallet", wallet);
-            response.put("transactions", transactions);
+    // The wallet with its latest page of history. Per-type totals cover the whole
+    // history; they are left out for the admin wallet, which every booking touches.
+    private Map<String, Object> walletResponse(Wallet wallet, boolean includeTotals) {
+        SliceResponse<WalletTransaction> page = walletService.getWalletTransactions(wallet.getId(), null,
+                DEFAULT_PAGE_SIZE, null, null, null);
 
-            return ResponseEntity.ok(response);
+        Map<String, Object> response = new HashMap<>();
+        response.put("wallet", wallet);
+        response.put("transactions", page.getContent());
+        response.put("hasNext", page.isHasNext());
+        response.put("nextCursor", page.getNextCursor());
+        if (includeTotals) {
+            response.put("totals", walletService.getTransactionTotals(wallet.getId()));
+        }
+        return response;
+    }
+
+    private ResponseEntity<SliceResponse<WalletTransaction>> transactionPage(Wallet wallet, String cursor, int size,
+            LocalDate from, LocalDate to, WalletTransaction.TransactionType type) {
+        try {
+            return ResponseEntity.ok(walletService.getWalletTransactions(wallet.getId(), cursor, size, from, to, type));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    // Collects written CSV and sends it to the client on every flush (the export flushes
+    // once per page), or once 64 KB have built up
+    private static final class EmitterWriter extends Writer {
+        private static final int MAX_BUFFERED_CHARS = 64 * 1024;
+
+        private final ResponseBodyEmitter emitter;
+        private final StringBuilder buffer = new StringBuilder();
+
+        private EmitterWriter(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            buffer.append(chars, offset, length);
+            if (buffer.length() >= MAX_BUFFERED_CHARS) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer.length() > 0) {
+                emitter.send(buffer.toString(), CSV);
+                buffer.setLength(0);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
 }
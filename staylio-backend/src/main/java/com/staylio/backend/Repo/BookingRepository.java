@@ -1,11 +1,17 @@
 package com.staylio.backend.Repo;
 
 import com.staylio.backend.model.Booking;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -51,6 +57,14 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                         @Param("checkIn") LocalDate checkIn,
                         @Param("checkOut") LocalDate checkOut);
 
+        // Rooms held by active bookings overlapping the range, grouped by hotel (checkOut exclusive)
+        @Query("SELECT b.hotelId, COALESCE(SUM(b.rooms), 0) FROM Booking b WHERE b.hotelId IN :hotelIds " +
+                        "AND b.status != 'CANCELLED' " +
+                        "AND b.checkInDate < :checkOut AND b.checkOutDate > :checkIn GROUP BY b.hotelId")
+        List<Object[]> sumBookedRoomsByHotel(@Param("hotelIds") Collection<Long> hotelIds,
+                        @Param("checkIn") LocalDate checkIn,
+                        @Param("checkOut") LocalDate checkOut);
+
         // Count bookings by user
         long countByUserId(Long userId);
 
@@ -69,11 +83,42 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
         boolean existsByHotelIdAndUserIdAndStatusAndCheckOutDateBefore(Long hotelId, Long userId,
                         Booking.BookingStatus status, LocalDate date);
 
-        // Find pending bookings past check-in date
-        @Query("SELECT b FROM Booking b WHERE b.status = 'PENDING' AND b.checkInDate < :date")
-        List<Booking> findPendingOverdueBookings(@Param("date") LocalDate date);
-
-        // Find confirmed bookings past check-out date
-        @Query("SELECT b FROM Booking b WHERE b.status = 'CONFIRMED' AND b.checkOutDate < :date")
-        List<Booking> findConfirmedCompletedBookings(@Param("date") LocalDate date);
-}
\ No newline at end of file
+        // Next page of pending bookings past check-in date in one shard (id mod shards), keyset by id
+        @Query("SELECT b.id FROM Booking b WHERE b.status = 'PENDING' AND b.checkInDate < :date " +
+                        "AND b.id > :afterId AND MOD(b.id, :shards) = :shard ORDER BY b.id")
+        List<Long> findPendingOverdueIds(@Param("date") LocalDate date, @Param("afterId") Long afterId,
+                        @Param("shard") int shard, @Param("shards") int shards, Limit limit);
+
+        // Next page of confirmed bookings past check-out date in one shard, keyset by id
+        @Query("SELECT b.id FROM Booking b WHERE b.status = 'CONFIRMED' AND b.checkOutDate < :date " +
+                        "AND b.id > :afterId AND MOD(b.id, :shards) = :shard ORDER BY b.id")
+        List<Long> findConfirmedFinishedIds(@Param("date") LocalDate date, @Param("afterId") Long afterId,
+                        @Param("shard") int shard, @Param("shards") int shards, Limit limit);
+
+        // Lock a batch of bookings that are still in the given status
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT b FROM Booking b WHERE b.id IN :ids AND b.status = :status")
+        List<Booking> lockByIdsAndStatus(@Param("ids") Collection<Long> ids,
+                        @Param("status") Booking.BookingStatus status);
+
+        // Move a batch of bookings to a new status in one statement
+        @Modifying
+        @Query("UPDATE Booking b SET b.status = :status, b.updatedAt = :updatedAt WHERE b.id IN :ids")
+        int updateStatus(@Param("ids") Collection<Long> ids,
+                        @Param("status") Booking.BookingStatus status,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+
+        // Mark a batch of bookings as no longer holding rooms in room_inventory
+        @Modifying
+        @Query("UPDATE Booking b SET b.inventoryReserved = false WHERE b.id IN :ids")
+        int clearInventoryReserved(@Param("ids") Collection<Long> ids);
+
+        // Next page of bookings made before nightly inventory existed, keyset by id
+        @Query("SELECT b.id FROM Booking b WHERE b.inventoryReserved IS NULL AND b.id > :afterId ORDER BY b.id")
+        List<Long> findUnmigratedInventoryIds(@Param("afterId") Long afterId, Limit limit);
+
+        // Lock a batch of bookings that still have to be migrated to nightly inventory
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT b FROM Booking b WHERE b.id IN :ids AND b.inventoryReserved IS NULL ORDER BY b.id")
+        List<Booking> lockUnmigratedInventoryByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,42 @@
+package com.staylio.backend.Repo;
+
+import com.staylio.backend.model.BookingTransition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookingTransitionRepository extends JpaRepository<BookingTransition, Long> {
+
+        // Oldest due transitions first
+        List<BookingTransition> findByDueAtLessThanEqualOrderByDueAt(LocalDateTime now, Limit limit);
+
+        Optional<BookingTransition> findByBookingIdAndTransition(Long bookingId,
+                        BookingTransition.TransitionType transition);
+
+        // Claim processed rows; another instance that already deleted them gets a lower count
+        @Modifying
+        @Query("DELETE FROM BookingTransition t WHERE t.id IN :ids")
+        int deleteByIds(@Param("ids") Collection<Long> ids);
+
+        // Retry a transition that failed later
+        @Modifying
+        @Transactional
+        @Query("UPDATE BookingTransition t SET t.attempts = :attempts, t.dueAt = :dueAt WHERE t.id = :id")
+        int postpone(@Param("id") Long id,
+                        @Param("attempts") int attempts,
+                        @Param("dueAt") LocalDateTime dueAt);
+
+        @Modifying
+        @Query("DELETE FROM BookingTransition t WHERE t.bookingId = :bookingId")
+        int deleteByBookingId(@Param("bookingId") Long bookingId);
+}
@@ -0,0 +1,86 @@
+package com.staylio.backend.Repo;
+
+import com.staylio.backend.model.EmailOutbox;
+import com.staylio.backend.model.EmailOutbox.OutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+        // Id and recipient of messages ready to send: due PENDING rows and SENDING rows
+        // whose lease ran out. The body is only loaded by the worker that sends it.
+        @Query("SELECT e.id, e.recipient FROM EmailOutbox e WHERE e.status IN :statuses AND e.nextAttemptAt <= :now " +
+                        "ORDER BY e.nextAttemptAt")
+        List<Object[]> findDue(@Param("statuses") Collection<OutboxStatus> statuses,
+                        @Param("now") LocalDateTime now,
+                        Limit limit);
+
+        // Take a message for sending. Only one dispatcher (on any instance) gets a row
+        // count of 1; the lease lets another one retry if this one dies mid-send.
+        // The token identifies this claim when the outcome is recorded.
+        @Modifying
+        @Transactional
+        @Query("UPDATE EmailOutbox e SET e.status = :sending, e.nextAttemptAt = :leaseUntil, e.claimToken = :token " +
+                        "WHERE e.id = :id AND e.status IN :statuses AND e.nextAttemptAt <= :now")
+        int claim(@Param("id") Long id,
+                        @Param("statuses") Collection<OutboxStatus> statuses,
+                        @Param("sending") OutboxStatus sending,
+                        @Param("now") LocalDateTime now,
+                        @Param("leaseUntil") LocalDateTime leaseUntil,
+                        @Param("token") String token);
+
+        // Record delivered messages that are still held under the given claim
+        @Modifying
+        @Transactional
+        @Query("UPDATE EmailOutbox e SET e.status = :sent, e.sentAt = :sentAt, e.lastError = NULL " +
+                        "WHERE e.id IN :ids AND e.status = :sending AND e.claimToken = :token")
+        int markSent(@Param("ids") Collection<Long> ids,
+                        @Param("token") String token,
+                        @Param("sending") OutboxStatus sending,
+                        @Param("sent") OutboxStatus sent,
+                        @Param("sentAt") LocalDateTime sentAt);
+
+        // Record a failed attempt for a message still held under the given claim
+        @Modifying
+        @Transactional
+        @Query("UPDATE EmailOutbox e SET e.status = :status, e.attempts = :attempts, e.lastError = :lastError, " +
+                        "e.nextAttemptAt = :nextAttemptAt " +
+                        "WHERE e.id = :id AND e.status = :sending AND e.claimToken = :token")
+        int markFailed(@Param("id") Long id,
+                        @Param("token") String token,
+                        @Param("sending") OutboxStatus sending,
+                        @Param("status") OutboxStatus status,
+                        @Param("attempts") Integer attempts,
+                        @Param("lastError") String lastError,
+                        @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+        // Hand a claimed but throttled message back without counting it as an attempt
+        @Modifying
+        @Transactional
+        @Query("UPDATE EmailOutbox e SET e.status = :pending, e.nextAttemptAt = :until, e.claimToken = NULL " +
+                        "WHERE e.id = :id AND e.status = :sending AND e.claimToken = :token")
+        int defer(@Param("id") Long id,
+                        @Param("token") String token,
+                        @Param("sending") OutboxStatus sending,
+                        @Param("pending") OutboxStatus pending,
+                        @Param("until") LocalDateTime until);
+
+        // Housekeeping for delivered mail
+        @Modifying
+        @Transactional
+        @Query("DELETE FROM EmailOutbox e WHERE e.status = :status AND e.sentAt < :before")
+        int deleteByStatusAndSentAtBefore(@Param("status") OutboxStatus status,
+                        @Param("before") LocalDateTime before);
+
+        long countByStatus(OutboxStatus status);
+}
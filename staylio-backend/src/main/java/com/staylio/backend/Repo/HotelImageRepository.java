@@ -1,10 +1,22 @@
 package com.staylio.backend.Repo;
 
-import com.staylio.backend.model.HotelImages;
+import com.staylio.backend.model.HotelImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface HotelImageRepository extends JpaRepository<HotelImages, Long> {
-    HotelImages findByHotelId(Long hotelId);
+public interface HotelImageRepository extends JpaRepository<HotelImage, Long> {
+
+    // Photos of several hotels in one query, each hotel's in display order
+    List<HotelImage> findByHotelIdInOrderByHotelIdAscPositionAsc(Collection<Long> hotelIds);
+
+    @Modifying
+    @Query("DELETE FROM HotelImage i WHERE i.hotelId = :hotelId")
+    int deleteByHotelId(@Param("hotelId") Long hotelId);
 }
@@ -1,12 +1,26 @@
 package com.staylio.backend.Repo;
 
+import com.staylio.backend.dto.HotelSummaryDTO;
+import com.staylio.backend.dto.HotelSummaryProjection;
 import com.staylio.backend.model.Hotel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -31,6 +45,7 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
        List<Hotel> findByCountryIgnoreCase(String country);
 
        // Find hotels by city and active status
+       @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
        List<Hotel> findByCityIgnoreCaseAndIsActiveTrue(String city);
 
        // Find hotels by price range
@@ -45,9 +60,29 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
        @Query("SELECT h FROM Hotel h WHERE h.maxGuests >= :guests AND h.isActive = true")
        List<Hotel> findByGuestCapacity(@Param("guests") Integer guests);
 
-       // Search hotels by name or city
-       @Query("SELECT h FROM Hotel h WHERE (LOWER(h.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(h.city) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND h.isActive = true")
-       List<Hotel> searchHotels(@Param("keyword") String keyword);
+       // Relevance of a hotel for :query, a MySQL boolean-mode expression built by HotelService.
+       // The column list must match the ft_hotels_search index (FullTextIndexInitializer).
+       String FULL_TEXT_MATCH = "MATCH(h.name, h.city, h.state, h.description, h.amenities) " +
+                     "AGAINST (:query IN BOOLEAN MODE)";
+
+       // Full-text hotel search, best matches first
+       @Query(value = "SELECT h.id AS id, h.name AS name, h.city AS city, h.country AS country, " +
+                     "h.price_per_night AS pricePerNight, h.rating AS rating, h.review_count AS reviewCount, " +
+                     "h.is_claimed AS isClaimed, SUBSTRING_INDEX(h.all_photo_urls, ',', 1) AS coverImageUrl " +
+                     "FROM hotels h WHERE h.is_active = true AND " + FULL_TEXT_MATCH + " " +
+                     "ORDER BY " + FULL_TEXT_MATCH + " DESC, h.is_claimed DESC, h.rating DESC, h.id DESC",
+                     nativeQuery = true)
+       Slice<HotelSummaryProjection> searchHotels(@Param("query") String query, Pageable pageable);
+
+       // Substring search on name or city, for keywords the full-text index cannot serve
+       @Query(value = "SELECT h.id AS id, h.name AS name, h.city AS city, h.country AS country, " +
+                     "h.price_per_night AS pricePerNight, h.rating AS rating, h.review_count AS reviewCount, " +
+                     "h.is_claimed AS isClaimed, SUBSTRING_INDEX(h.all_photo_urls, ',', 1) AS coverImageUrl " +
+                     "FROM hotels h WHERE h.is_active = true AND " +
+                     "(LOWER(h.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(h.city) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+                     "ORDER BY h.is_claimed DESC, h.rating DESC, h.id DESC",
+                     nativeQuery = true)
+       Slice<HotelSummaryProjection> searchHotelsByNameOrCity(@Param("keyword") String keyword, Pageable pageable);
 
        // Find hotels with available rooms
        @Query("SELECT h FROM Hotel h WHERE h.availableRooms > 0 AND h.isActive = true")
@@ -68,12 +103,20 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
        // Find hotels without owner (available for claiming)
        List<Hotel> findByHotelOwnerIdIsNull();
 
-       // Search hotels for claiming (no owner, by name/city/id)
+       // Ids of hotels for claiming (no owner) by full-text match, best matches first. Only ids:
+       // native rows cannot be mapped onto Hotel, whose @Formula columns are not in hotels.
+       @Query(value = "SELECT h.id FROM hotels h WHERE h.hotel_owner_id IS NULL AND " + FULL_TEXT_MATCH + " " +
+                     "ORDER BY " + FULL_TEXT_MATCH + " DESC, h.id",
+                     nativeQuery = true)
+       List<Long> searchUnclaimedHotelIds(@Param("query") String query);
+
+       // Search hotels for claiming (no owner) by name/city substring or partial id; an exact id first
        @Query("SELECT h FROM Hotel h WHERE h.hotelOwnerId IS NULL AND " +
                      "(LOWER(h.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
                      "LOWER(h.city) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-                     "CAST(h.id AS string) LIKE CONCAT('%', :keyword, '%'))")
-       List<Hotel> searchUnclaimedHotels(@Param("keyword") String keyword);
+                     "CAST(h.id AS string) LIKE CONCAT('%', :keyword, '%')) " +
+                     "ORDER BY CASE WHEN CAST(h.id AS string) = :keyword THEN 0 ELSE 1 END, h.id")
+       List<Hotel> searchUnclaimedHotelsByText(@Param("keyword") String keyword);
 
        // Smart filter for Chatbot
        @Query("SELECT h FROM Hotel h WHERE (:city IS NULL OR LOWER(h.city) LIKE LOWER(CONCAT('%', :city, '%'))) " +
@@ -88,10 +131,104 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
                      @Param("minGuests") Integer minGuests,
                      @Param("propertyType") String propertyType);
 
-       // Landing Page: Claimed hotels only, top 15 by rating
+       // Availability search: hotel filters plus date-range room availability in one query.
+       // Room-typed hotels need one room type with enough free rooms on every night (nightly ledger);
+       // hotels without room types fall back to total rooms minus overlapping bookings.
+       @Query("SELECT new com.staylio.backend.dto.HotelSummaryDTO(h.id, h.name, h.city, h.country, " +
+                     "h.pricePerNight, h.rating, h.reviewCount, h.isClaimed, h.coverImageUrl) " +
+                     "FROM Hotel h WHERE h.isActive = true " +
+                     "AND (:city IS NULL OR LOWER(h.city) = LOWER(:city)) " +
+                     "AND (:minPrice IS NULL OR h.pricePerNight >= :minPrice) " +
+                     "AND (:maxPrice IS NULL OR h.pricePerNight <= :maxPrice) " +
+                     "AND (:minRating IS NULL OR h.rating >= :minRating) " +
+                     "AND (:guests IS NULL OR h.maxGuests >= :guests) " +
+                     "AND (EXISTS (SELECT r.id FROM Room r WHERE r.hotelId = h.id AND r.isActive = true " +
+                     "AND r.roomCount - COALESCE((SELECT MAX(ri.bookedCount) FROM RoomInventory ri WHERE ri.roomId = r.id " +
+                     "AND ri.stayDate >= :checkIn AND ri.stayDate < :checkOut), 0) >= :rooms) " +
+                     "OR (NOT EXISTS (SELECT r2.id FROM Room r2 WHERE r2.hotelId = h.id AND r2.isActive = true) " +
+                     "AND h.totalRooms - COALESCE((SELECT SUM(b.rooms) FROM Booking b WHERE b.hotelId = h.id " +
+                     "AND b.status != 'CANCELLED' AND b.checkInDate < :checkOut AND b.checkOutDate > :checkIn), 0) >= :rooms))")
+       Page<HotelSummaryDTO> searchAvailableHotels(@Param("city") String city,
+                     @Param("minPrice") BigDecimal minPrice,
+                     @Param("maxPrice") BigDecimal maxPrice,
+                     @Param("minRating") Double minRating,
+                     @Param("guests") Integer guests,
+                     @Param("checkIn") LocalDate checkIn,
+                     @Param("checkOut") LocalDate checkOut,
+                     @Param("rooms") Integer rooms,
+                     Pageable pageable);
+
+       // Names and places for the typeahead trie: id, name, city, state, review count
+       @Query("SELECT h.id, h.name, h.city, h.state, h.reviewCount FROM Hotel h WHERE h.isActive = true")
+       List<Object[]> findSuggestionSources();
+
+       // Hotel-level room totals, used when a hotel has no room types configured
+       @Query("SELECT h.id, h.totalRooms FROM Hotel h WHERE h.id IN :ids")
+       List<Object[]> findTotalRoomsByIds(@Param("ids") Collection<Long> ids);
+
+       // Keyset (seek) pages for the list endpoints, projected to card fields; callers
+       // pass the sort and the position of the last row they saw
+       Window<HotelSummaryProjection> findBy(ScrollPosition position, Sort sort, Limit limit);
+
+       Window<HotelSummaryProjection> findByIsActiveTrue(ScrollPosition position, Sort sort, Limit limit);
+
+       Window<HotelSummaryProjection> findByIsFeaturedTrue(ScrollPosition position, Sort sort, Limit limit);
+
+       Window<HotelSummaryProjection> findByHostId(Long hostId, ScrollPosition position, Sort sort, Limit limit);
+
+       Window<HotelSummaryProjection> findByHotelOwnerId(Long hotelOwnerId, ScrollPosition position, Sort sort, Limit limit);
+
+       @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+       Window<HotelSummaryProjection> findByCityIgnoreCaseAndIsActiveTrue(String city, ScrollPosition position, Sort sort, Limit limit);
+
+       Window<HotelSummaryProjection> findByStateIgnoreCase(String state, ScrollPosition position, Sort sort, Limit limit);
+
+       Window<HotelSummaryProjection> findByCountryIgnoreCase(String country, ScrollPosition position, Sort sort, Limit limit);
+
+       Window<HotelSummaryProjection> findByPricePerNightBetweenAndIsActiveTrue(BigDecimal minPrice, BigDecimal maxPrice,
+                     ScrollPosition position, Sort sort, Limit limit);
+
+       Window<HotelSummaryProjection> findByRatingGreaterThanEqualAndIsActiveTrue(Double minRating, ScrollPosition position, Sort sort,
+                     Limit limit);
+
+       Window<HotelSummaryProjection> findByMaxGuestsGreaterThanEqualAndIsActiveTrue(Integer guests, ScrollPosition position, Sort sort,
+                     Limit limit);
+
+       Window<HotelSummaryProjection> findByAvailableRoomsGreaterThanAndIsActiveTrue(Integer minRooms, ScrollPosition position,
+                     Sort sort, Limit limit);
+
+       // Great-circle distance in km from (:latitude, :longitude); the cosine is capped at 1
+       // so a hotel at exactly the search point does not turn into NULL
+       String DISTANCE_KM = "(6371 * acos(least(1.0, cos(radians(:latitude)) * cos(radians(h.latitude)) * " +
+                     "cos(radians(h.longitude) - radians(:longitude)) + sin(radians(:latitude)) * " +
+                     "sin(radians(h.latitude)))))";
+
+       // Nearby hotels, closest first. The latitude/longitude box is an index range scan
+       // on idx_hotels_lat_lon, so the exact distance only runs on rows inside the box.
+       @Query("SELECT new com.staylio.backend.dto.HotelSummaryDTO(h.id, h.name, h.city, h.country, " +
+                     "h.pricePerNight, h.rating, h.reviewCount, h.isClaimed, h.coverImageUrl, " + DISTANCE_KM + ") " +
+                     "FROM Hotel h WHERE h.latitude BETWEEN :minLat AND :maxLat " +
+                     "AND h.longitude BETWEEN :minLon AND :maxLon AND h.isActive = true " +
+                     "AND " + DISTANCE_KM + " <= :radius " +
+                     "ORDER BY " + DISTANCE_KM + ", h.id")
+       Slice<HotelSummaryDTO> findNearbyHotels(@Param("latitude") Double latitude,
+                     @Param("longitude") Double longitude,
+                     @Param("radius") Double radius,
+                     @Param("minLat") Double minLat,
+                     @Param("maxLat") Double maxLat,
+                     @Param("minLon") Double minLon,
+                     @Param("maxLon") Double maxLon,
+                     Pageable pageable);
+
+       // Landing Page: Claimed hotels only, top 15 by rating (query cache; any hotel write invalidates it)
+       @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
        List<Hotel> findTop15ByHotelOwnerIdIsNotNullAndIsActiveTrueOrderByRatingDesc();
 
        // Main Page: All hotels, claimed first
        @Query("SELECT h FROM Hotel h ORDER BY CASE WHEN h.hotelOwnerId IS NOT NULL THEN 0 ELSE 1 END, h.rating DESC")
        List<Hotel> findAllSortedByClaimStatus();
+
+        // Host of each hotel, for batch settlement
+        @Query("SELECT h.id, h.hostId FROM Hotel h WHERE h.id IN :ids AND h.hostId IS NOT NULL")
+        List<Object[]> findHostIdsByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,42 @@
+package com.staylio.backend.Repo;
+
+import com.staylio.backend.model.HotelReviewDailyStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface HotelReviewDailyStatsRepository extends JpaRepository<HotelReviewDailyStats, Long> {
+
+        List<HotelReviewDailyStats> findByHotelIdAndReviewDateGreaterThanEqual(Long hotelId, LocalDate since);
+
+        // Create the day row if it does not exist yet; the native space keeps Hibernate
+        // from clearing every cache region on each review
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "hotel_review_daily_stats"))
+        @Query(value = "INSERT IGNORE INTO hotel_review_daily_stats (hotel_id, review_date, review_count, rating_sum) " +
+                        "VALUES (:hotelId, :reviewDate, 0, 0)", nativeQuery = true)
+        int insertDayIfAbsent(@Param("hotelId") Long hotelId, @Param("reviewDate") LocalDate reviewDate);
+
+        @Modifying
+        @Query("UPDATE HotelReviewDailyStats d SET d.reviewCount = d.reviewCount + 1, d.ratingSum = d.ratingSum + :rating " +
+                        "WHERE d.hotelId = :hotelId AND d.reviewDate = :reviewDate")
+        int increment(@Param("hotelId") Long hotelId, @Param("reviewDate") LocalDate reviewDate,
+                        @Param("rating") long rating);
+
+        @Modifying
+        @Query("DELETE FROM HotelReviewDailyStats d WHERE d.hotelId = :hotelId")
+        int deleteByHotelId(@Param("hotelId") Long hotelId);
+
+        @Modifying
+        @Query("DELETE FROM HotelReviewDailyStats d WHERE d.reviewDate < :before")
+        int deleteOlderThan(@Param("before") LocalDate before);
+}
@@ -0,0 +1,26 @@
+package com.staylio.backend.Repo;
+
+import com.staylio.backend.model.HotelReviewStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HotelReviewStatsRepository extends JpaRepository<HotelReviewStats, Long> {
+
+        List<HotelReviewStats> findByHotelId(Long hotelId);
+
+        // Count one more review in a bucket; 0 means the hotel has no histogram yet
+        @Modifying
+        @Query("UPDATE HotelReviewStats s SET s.reviewCount = s.reviewCount + 1 " +
+                        "WHERE s.hotelId = :hotelId AND s.rating = :rating")
+        int increment(@Param("hotelId") Long hotelId, @Param("rating") Integer rating);
+
+        @Modifying
+        @Query("DELETE FROM HotelReviewStats s WHERE s.hotelId = :hotelId")
+        int deleteByHotelId(@Param("hotelId") Long hotelId);
+}
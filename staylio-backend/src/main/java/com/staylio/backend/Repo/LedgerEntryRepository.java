@@ -0,0 +1,43 @@
+package com.staylio.backend.Repo;
+
+import com.staylio.backend.model.LedgerEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+        // Sum of a wallet's entries after the given entry id (0 = all of them)
+        @Query("SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e WHERE e.walletId = :walletId AND e.id > :afterId")
+        BigDecimal sumSince(@Param("walletId") Long walletId, @Param("afterId") Long afterId);
+
+        // Newest entry written before the given time; walks the id index backwards
+        Optional<LedgerEntry> findFirstByCreatedAtBeforeOrderByIdDesc(LocalDateTime before);
+
+        // Per wallet: sum of the entries up to :upToId not yet covered by its snapshot
+        @Query("SELECT e.walletId, SUM(e.amount) FROM LedgerEntry e " +
+                        "LEFT JOIN WalletBalanceSnapshot s ON s.walletId = e.walletId " +
+                        "WHERE e.id > COALESCE(s.lastEntryId, 0) AND e.id <= :upToId GROUP BY e.walletId")
+        List<Object[]> sumUnsnapshotted(@Param("upToId") Long upToId);
+
+        // Per snapshot: wallet id, snapshot balance and the ledger's sum over the same entries
+        @Query("SELECT s.walletId, s.balance, COALESCE(SUM(e.amount), 0) FROM WalletBalanceSnapshot s " +
+                        "LEFT JOIN LedgerEntry e ON e.walletId = s.walletId AND e.id <= s.lastEntryId " +
+                        "GROUP BY s.walletId, s.balance")
+        List<Object[]> compareSnapshots();
+
+        // Every transaction posts entries that cancel out, so this is always zero
+        @Query("SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e")
+        BigDecimal sumAll();
+
+        @Query("SELECT e.transactionId FROM LedgerEntry e GROUP BY e.transactionId HAVING SUM(e.amount) <> 0")
+        List<Long> findUnbalancedTransactionIds(Limit limit);
+}
@@ -1,19 +1,42 @@
 package com.staylio.backend.Repo;
 
+import com.staylio.backend.dto.ReviewDTO;
 import com.staylio.backend.model.Review;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
-    List<Review> findByHotelIdOrderByCreatedAtDesc(Long hotelId);
+    // One page of a hotel's reviews, newest first, strictly before the (beforeAt, beforeId)
+    // position; served from idx_reviews_hotel_created
+    @Query("SELECT new com.staylio.backend.dto.ReviewDTO(r.id, r.hotelId, r.userId, r.rating, r.reviewText, " +
+            "r.createdAt, u.name, u.firstName, u.lastName) " +
+            "FROM Review r LEFT JOIN r.user u WHERE r.hotelId = :hotelId " +
+            "AND (r.createdAt < :beforeAt OR (r.createdAt = :beforeAt AND r.id < :beforeId)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReviewDTO> findPageByHotelId(@Param("hotelId") Long hotelId,
+            @Param("beforeAt") LocalDateTime beforeAt,
+            @Param("beforeId") Long beforeId,
+            Limit limit);
 
     long countByHotelId(Long hotelId);
 
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.hotelId = :hotelId")
-    Double getAverageRatingByHotelId(@Param("hotelId") Long hotelId);
+    // Review count and rating sum of a hotel, as a single row
+    @Query("SELECT COUNT(r), COALESCE(SUM(r.rating), 0) FROM Review r WHERE r.hotelId = :hotelId")
+    List<Object[]> getRatingTotalsByHotelId(@Param("hotelId") Long hotelId);
+
+    // Review count per star rating of a hotel, as (rating, count) rows
+    @Query("SELECT r.rating, COUNT(r) FROM Review r WHERE r.hotelId = :hotelId GROUP BY r.rating")
+    List<Object[]> countByRating(@Param("hotelId") Long hotelId);
+
+    // Review count and rating sum per day since the given time, as (date, count, sum) rows
+    @Query("SELECT CAST(r.createdAt AS LocalDate), COUNT(r), SUM(r.rating) FROM Review r " +
+            "WHERE r.hotelId = :hotelId AND r.createdAt >= :since GROUP BY CAST(r.createdAt AS LocalDate)")
+    List<Object[]> getDailyTotalsSince(@Param("hotelId") Long hotelId, @Param("since") LocalDateTime since);
 }
@@ -0,0 +1,89 @@
+package com.staylio.backend.Repo;
+
+import com.staylio.backend.dto.RoomAvailabilityDTO;
+import com.staylio.backend.model.RoomInventory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RoomInventoryRepository extends JpaRepository<RoomInventory, Long> {
+
+        // Count ledger rows already present for a stay (checkOut exclusive)
+        @Query("SELECT COUNT(ri) FROM RoomInventory ri WHERE ri.roomId = :roomId " +
+                        "AND ri.stayDate >= :checkIn AND ri.stayDate < :checkOut")
+        long countNights(@Param("roomId") Long roomId,
+                        @Param("checkIn") LocalDate checkIn,
+                        @Param("checkOut") LocalDate checkOut);
+
+        // Create a night row if it does not exist yet (safe under concurrent inserts).
+        // The native space keeps Hibernate from clearing every cache region on each booking.
+        @Modifying
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "room_inventory"))
+        @Query(value = "INSERT IGNORE INTO room_inventory (room_id, stay_date, capacity, booked_count) " +
+                        "VALUES (:roomId, :stayDate, :capacity, 0)", nativeQuery = true)
+        int insertNightIfAbsent(@Param("roomId") Long roomId,
+                        @Param("stayDate") LocalDate stayDate,
+                        @Param("capacity") Integer capacity);
+
+        // Atomically reserve rooms on every night that still has space.
+        // Callers compare the update count with the number of nights.
+        @Modifying
+        @Query("UPDATE RoomInventory ri SET ri.bookedCount = ri.bookedCount + :quantity " +
+                        "WHERE ri.roomId = :roomId AND ri.stayDate >= :checkIn AND ri.stayDate < :checkOut " +
+                        "AND ri.bookedCount + :quantity <= ri.capacity")
+        int reserveNights(@Param("roomId") Long roomId,
+                        @Param("checkIn") LocalDate checkIn,
+                        @Param("checkOut") LocalDate checkOut,
+                        @Param("quantity") Integer quantity);
+
+        // Record rooms already taken by an existing booking, even past capacity. Only used when
+        // migrating bookings made before nightly inventory, which must not be turned away.
+        @Modifying
+        @Query("UPDATE RoomInventory ri SET ri.bookedCount = ri.bookedCount + :quantity " +
+                        "WHERE ri.roomId = :roomId AND ri.stayDate >= :checkIn AND ri.stayDate < :checkOut")
+        int occupyNights(@Param("roomId") Long roomId,
+                        @Param("checkIn") LocalDate checkIn,
+                        @Param("checkOut") LocalDate checkOut,
+                        @Param("quantity") Integer quantity);
+
+        // Give reserved rooms back for a stay
+        @Modifying
+        @Query("UPDATE RoomInventory ri SET ri.bookedCount = ri.bookedCount - :quantity " +
+                        "WHERE ri.roomId = :roomId AND ri.stayDate >= :checkIn AND ri.stayDate < :checkOut " +
+                        "AND ri.bookedCount >= :quantity")
+        int releaseNights(@Param("roomId") Long roomId,
+                        @Param("checkIn") LocalDate checkIn,
+                        @Param("checkOut") LocalDate checkOut,
+                        @Param("quantity") Integer quantity);
+
+        // Keep future nights in line with the room count set by the host
+        @Modifying
+        @Query("UPDATE RoomInventory ri SET ri.capacity = :capacity WHERE ri.roomId = :roomId AND ri.stayDate >= :fromDate")
+        int updateCapacityFrom(@Param("roomId") Long roomId,
+                        @Param("fromDate") LocalDate fromDate,
+                        @Param("capacity") Integer capacity);
+
+        // Per room type: total rooms and the peak booked count over the range, for many hotels at once
+        @Query("SELECT new com.staylio.backend.dto.RoomAvailabilityDTO(r.id, r.hotelId, r.roomType, r.roomCount, " +
+                        "COALESCE(MAX(ri.bookedCount), 0)) FROM Room r " +
+                        "LEFT JOIN RoomInventory ri ON ri.roomId = r.id AND ri.stayDate >= :checkIn AND ri.stayDate < :checkOut " +
+                        "WHERE r.hotelId IN :hotelIds AND r.isActive = true " +
+                        "GROUP BY r.id, r.hotelId, r.roomType, r.roomCount")
+        List<RoomAvailabilityDTO> findRoomAvailability(@Param("hotelIds") Collection<Long> hotelIds,
+                        @Param("checkIn") LocalDate checkIn,
+                        @Param("checkOut") LocalDate checkOut);
+
+        @Modifying
+        @Query("DELETE FROM RoomInventory ri WHERE ri.roomId = :roomId")
+        int deleteByRoomId(@Param("roomId") Long roomId);
+}
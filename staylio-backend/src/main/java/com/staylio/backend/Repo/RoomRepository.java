@@ -1,15 +1,21 @@
 package com.staylio.backend.Repo;
 
 import com.staylio.backend.model.Room;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
+    // Room lists are cached (query cache + entity cache) and invalidated by any room write
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Room> findByHotelId(Long hotelId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Room> findByHotelIdAndIsActiveTrue(Long hotelId);
 
     List<Room> findByHotelIdAndIsActiveTrueAndRoomCountGreaterThan(Long hotelId, Integer minCount);
@@ -0,0 +1,50 @@
+package com.staylio.backend.Repo;
+
+import com.staylio.backend.model.SchedulerLock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+        // All times come from the database clock (CURRENT_TIMESTAMP(6)), so instances whose
+        // clocks drift apart still agree on when a lock runs out.
+
+        // Create the lock row, unlocked, if it does not exist yet (safe under concurrent inserts)
+        @Modifying
+        @Transactional
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "scheduler_locks"))
+        @Query(value = "INSERT IGNORE INTO scheduler_locks (name, locked_until, locked_at, locked_by) " +
+                        "VALUES (:name, CURRENT_TIMESTAMP(6), CURRENT_TIMESTAMP(6), '')", nativeQuery = true)
+        int insertIfAbsent(@Param("name") String name);
+
+        // Take the lock for :lockMicros if it has expired; an update count of 1 means we own it
+        @Modifying
+        @Transactional
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "scheduler_locks"))
+        @Query(value = "UPDATE scheduler_locks SET locked_until = TIMESTAMPADD(MICROSECOND, :lockMicros, CURRENT_TIMESTAMP(6)), " +
+                        "locked_at = CURRENT_TIMESTAMP(6), locked_by = :owner " +
+                        "WHERE name = :name AND locked_until <= CURRENT_TIMESTAMP(6)", nativeQuery = true)
+        int tryAcquire(@Param("name") String name,
+                        @Param("owner") String owner,
+                        @Param("lockMicros") long lockMicros);
+
+        // Hand the lock back, keeping it until :keepMicros after it was taken so other
+        // instances do not rerun the job
+        @Modifying
+        @Transactional
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "scheduler_locks"))
+        @Query(value = "UPDATE scheduler_locks SET locked_until = " +
+                        "GREATEST(TIMESTAMPADD(MICROSECOND, :keepMicros, locked_at), CURRENT_TIMESTAMP(6)) " +
+                        "WHERE name = :name AND locked_by = :owner", nativeQuery = true)
+        int release(@Param("name") String name,
+                        @Param("owner") String owner,
+                        @Param("keepMicros") long keepMicros);
+}
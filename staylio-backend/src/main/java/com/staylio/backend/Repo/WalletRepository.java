@@ -1,14 +1,51 @@
 package com.staylio.backend.Repo;
 
 import com.staylio.backend.model.Wallet;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
     Optional<Wallet> findByOwnerTypeAndOwnerId(Wallet.OwnerType ownerType, Long ownerId);
 
-    Optional<Wallet> findByOwnerType(Wallet.OwnerType ownerType);
+    // Oldest ADMIN/SYSTEM wallet created before they were given an owner id
+    Optional<Wallet> findFirstByOwnerTypeAndOwnerIdIsNullOrderByIdAsc(Wallet.OwnerType ownerType);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Wallet w SET w.ownerId = :ownerId WHERE w.id = :id AND w.ownerId IS NULL")
+    int assignOwner(@Param("id") Long id, @Param("ownerId") Long ownerId);
+
+    // Create an empty wallet unless the owner already has one (uk_wallets_owner), so
+    // concurrent first payments of a user do not create two wallets
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "wallets"))
+    @Query(value = "INSERT IGNORE INTO wallets (owner_type, owner_id, balance, created_at, updated_at) " +
+            "VALUES (:ownerType, :ownerId, 0, :now, :now)", nativeQuery = true)
+    int insertIfAbsent(@Param("ownerType") String ownerType, @Param("ownerId") Long ownerId,
+            @Param("now") LocalDateTime now);
+
+    // Locking read, which sees a wallet another transaction has just committed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Transactional
+    @Query("SELECT w FROM Wallet w WHERE w.ownerType = :ownerType AND w.ownerId = :ownerId")
+    Optional<Wallet> findByOwnerForUpdate(@Param("ownerType") Wallet.OwnerType ownerType,
+            @Param("ownerId") Long ownerId);
+
+    // Serializes debits of a wallet: held until the debiting transaction ends
+    @Query(value = "SELECT id FROM wallets WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long lockWallet(@Param("id") Long id);
 }
@@ -1,14 +1,60 @@
 package com.staylio.backend.Repo;
 
 import com.staylio.backend.model.WalletTransaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface WalletTransactionRepository extends JpaRepository<WalletTransaction, Long> {
-    List<WalletTransaction> findByFromWalletIdOrToWalletIdOrderByCreatedAtDesc(Long fromWalletId, Long toWalletId);
+        List<WalletTransaction> findByBookingId(Long bookingId);
 
-    List<WalletTransaction> findByBookingId(Long bookingId);
+        // History pages are read per side, each from its own (wallet, created_at) index,
+        // and merged by the service; an OR over both columns could use neither index.
+        // Rows come newest first, strictly before the (beforeAt, beforeId) position.
+        @Query("SELECT t FROM WalletTransaction t WHERE t.fromWalletId = :walletId " +
+                        "AND t.createdAt >= :fromAt AND (:type IS NULL OR t.transactionType = :type) " +
+                        "AND (t.createdAt < :beforeAt OR (t.createdAt = :beforeAt AND t.id < :beforeId)) " +
+                        "ORDER BY t.createdAt DESC, t.id DESC")
+        List<WalletTransaction> findOutgoingPage(@Param("walletId") Long walletId,
+                        @Param("fromAt") LocalDateTime fromAt,
+                        @Param("type") WalletTransaction.TransactionType type,
+                        @Param("beforeAt") LocalDateTime beforeAt,
+                        @Param("beforeId") Long beforeId,
+                        Limit limit);
+
+        @Query("SELECT t FROM WalletTransaction t WHERE t.toWalletId = :walletId " +
+                        "AND t.createdAt >= :fromAt AND (:type IS NULL OR t.transactionType = :type) " +
+                        "AND (t.createdAt < :beforeAt OR (t.createdAt = :beforeAt AND t.id < :beforeId)) " +
+                        "ORDER BY t.createdAt DESC, t.id DESC")
+        List<WalletTransaction> findIncomingPage(@Param("walletId") Long walletId,
+                        @Param("fromAt") LocalDateTime fromAt,
+                        @Param("type") WalletTransaction.TransactionType type,
+                        @Param("beforeAt") LocalDateTime beforeAt,
+                        @Param("beforeId") Long beforeId,
+                        Limit limit);
+
+        // Totals per transaction type, one side at a time like the history pages
+        @Query("SELECT t.transactionType, SUM(t.amount) FROM WalletTransaction t WHERE t.fromWalletId = :walletId " +
+                        "GROUP BY t.transactionType")
+        List<Object[]> sumOutgoingByType(@Param("walletId") Long walletId);
+
+        @Query("SELECT t.transactionType, SUM(t.amount) FROM WalletTransaction t WHERE t.toWalletId = :walletId " +
+                        "GROUP BY t.transactionType")
+        List<Object[]> sumIncomingByType(@Param("walletId") Long walletId);
+
+        // Next export page of the whole journal in id order
+        @Query("SELECT t FROM WalletTransaction t WHERE t.id > :afterId " +
+                        "AND t.createdAt >= :fromAt AND t.createdAt < :toAt " +
+                        "AND (:type IS NULL OR t.transactionType = :type) ORDER BY t.id")
+        List<WalletTransaction> findExportPage(@Param("afterId") Long afterId,
+                        @Param("fromAt") LocalDateTime fromAt,
+                        @Param("toAt") LocalDateTime toAt,
+                        @Param("type") WalletTransaction.TransactionType type,
+                        Limit limit);
 }
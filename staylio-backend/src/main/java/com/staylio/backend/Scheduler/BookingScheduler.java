@@ -1,37 +1,75 @@
 package com.staylio.backend.Scheduler;
 
-import com.staylio.backend.Service.BookingService;
+import com.staylio.backend.Service.BookingBatchService;
+import com.staylio.backend.Service.BookingLifecycleService;
+import com.staylio.backend.Service.SchedulerLockService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Component
 public class BookingScheduler {
 
+    // A crashed instance releases its shards after this long
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(30);
+    // Longer than any clock skew between instances, so a run is never repeated
+    private static final Duration LOCK_AT_LEAST = Duration.ofMinutes(5);
+
+    @Autowired
+    private BookingBatchService bookingBatchService;
+
     @Autowired
-    private BookingService bookingService;
+    private BookingLifecycleService bookingLifecycleService;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    // Bookings are split by id across this many independently locked shards, so
+    // several instances can share a nightly run. 1 = a single job-wide lock.
+    @Value("${staylio.scheduler.booking-shards:1}")
+    private int bookingShards;
+
+    // Apply booking transitions from the delay queue as they come due
+    @Scheduled(fixedDelay = 15000)
+    public void processDueTransitions() {
+        try {
+            int processed = bookingLifecycleService.processDue();
+            if (processed > 0) {
+                System.out.println("Applied " + processed + " due booking transitions");
+            }
+        } catch (Exception e) {
+            System.err.println("Error processing booking transitions: " + e.getMessage());
+        }
+    }
 
     // Run every day at midnight (00:00:00)
+    // Safety net for bookings the delay queue missed (e.g. created before it existed)
     // Auto-cancel pending bookings past check-in date
     @Scheduled(cron = "0 0 0 * * ?")
     public void scheduleAutoCancel() {
         System.out.println("Running Auto-Cancel Job at " + LocalDateTime.now());
         try {
-            bookingService.autoCancelOverdueBookings();
+            int ran = schedulerLockService.runSharded("booking-auto-cancel", bookingShards, LOCK_AT_MOST,
+                    LOCK_AT_LEAST, shard -> bookingBatchService.autoCancelOverdueBookings(shard, bookingShards));
+            System.out.println("Auto-Cancel Job ran " + ran + " of " + bookingShards + " shards on this instance");
         } catch (Exception e) {
             System.err.println("Error in Auto-Cancel Job: " + e.getMessage());
         }
     }
 
-    // Run every day at midnight (00:00:00)
+    // Run every day at 00:15, after the auto-cancel job
     // Auto-complete confirmed bookings past check-out date
-    @Scheduled(cron = "0 0 0 * * ?")
+    @Scheduled(cron = "0 15 0 * * ?")
     public void scheduleAutoComplete() {
         System.out.println("Running Auto-Complete Job at " + LocalDateTime.now());
         try {
-            bookingService.autoCompleteFinishedBookings();
+            int ran = schedulerLockService.runSharded("booking-auto-complete", bookingShards, LOCK_AT_MOST,
+                    LOCK_AT_LEAST, shard -> bookingBatchService.autoCompleteFinishedBookings(shard, bookingShards));
+            System.out.println("Auto-Complete Job ran " + ran + " of " + bookingShards + " shards on this instance");
         } catch (Exception e) {
             System.err.println("Error in Auto-Complete Job: " + e.getMessage());
         }
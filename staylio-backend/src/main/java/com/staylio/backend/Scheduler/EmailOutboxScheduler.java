@@ -0,0 +1,53 @@
+package com.staylio.backend.Scheduler;
+
+import com.staylio.backend.Service.EmailOutboxService;
+import com.staylio.backend.Service.SchedulerLockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+public class EmailOutboxScheduler {
+
+    // Keep delivered mail around for a week for support lookups
+    private static final int SENT_RETENTION_DAYS = 7;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    // Every 5 seconds: pick up retries, expired leases and mail queued by other instances.
+    // Not locked: rows are claimed one by one, so all instances can dispatch.
+    @Scheduled(fixedDelay = 5000, initialDelay = 10000)
+    public void dispatchPendingEmails() {
+        try {
+            emailOutboxService.dispatchDue();
+        } catch (Exception e) {
+            System.err.println("Error in Email Outbox Job: " + e.getMessage());
+        }
+    }
+
+    // Run every day at 03:00
+    // Purge delivered emails and report dead-lettered ones
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void cleanupOutbox() {
+        System.out.println("Running Email Outbox Cleanup Job at " + LocalDateTime.now());
+        try {
+            // Once per deployment, not once per instance
+            schedulerLockService.runLocked("email-outbox-cleanup", Duration.ofMinutes(30), Duration.ofMinutes(5),
+                    () -> {
+                        int purged = emailOutboxService.purgeSent(SENT_RETENTION_DAYS);
+                        long dead = emailOutboxService.countDead();
+                        System.out.println("Purged " + purged + " sent emails, " + dead
+                                + " emails in dead-letter state");
+                    });
+        } catch (Exception e) {
+            System.err.println("Error in Email Outbox Cleanup Job: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.staylio.backend.Scheduler;
+
+import com.staylio.backend.Service.ReviewService;
+import com.staylio.backend.Service.ReviewStatsService;
+import com.staylio.backend.Service.SchedulerLockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+public class HotelRatingScheduler {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewStatsService reviewStatsService;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    // Run every day at 04:30
+    // Reconcile incrementally maintained hotel ratings and review statistics with the
+    // reviews table, and drop per-day review totals that left the rolling windows
+    @Scheduled(cron = "0 30 4 * * ?")
+    public void reconcileHotelRatings() {
+        System.out.println("Running Hotel Rating Reconciliation Job at " + LocalDateTime.now());
+        try {
+            schedulerLockService.runLocked("hotel-rating-reconcile", Duration.ofMinutes(30), Duration.ofMinutes(5),
+                    () -> {
+                        int fixed = reviewService.reconcileHotelRatings();
+                        int pruned = reviewStatsService.pruneDailyStats();
+                        System.out.println("Hotel Rating Reconciliation Job recomputed " + fixed
+                                + " hotels, pruned " + pruned + " daily review totals");
+                    });
+        } catch (Exception e) {
+            System.err.println("Error in Hotel Rating Reconciliation Job: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.staylio.backend.Scheduler;
+
+import com.staylio.backend.Service.SchedulerLockService;
+import com.staylio.backend.Service.WalletLedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+public class WalletLedgerScheduler {
+
+    @Autowired
+    private WalletLedgerService walletLedgerService;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    // Every hour at :30
+    // Roll wallet balance snapshots forward so balance reads stay short
+    @Scheduled(cron = "0 30 * * * ?")
+    public void snapshotBalances() {
+        try {
+            schedulerLockService.runLocked("wallet-ledger-snapshots", Duration.ofMinutes(30), Duration.ofMinutes(5),
+                    () -> {
+                        int written = walletLedgerService.takeSnapshots();
+                        System.out.println("Wallet Snapshot Job updated " + written + " snapshots");
+                    });
+        } catch (Exception e) {
+            System.err.println("Error in Wallet Snapshot Job: " + e.getMessage());
+        }
+    }
+
+    // Run every day at 04:00
+    // Verify snapshots and postings against the ledger
+    @Scheduled(cron = "0 0 4 * * ?")
+    public void reconcileLedger() {
+        System.out.println("Running Wallet Reconciliation Job at " + LocalDateTime.now());
+        try {
+            schedulerLockService.runLocked("wallet-ledger-reconcile", Duration.ofMinutes(30), Duration.ofMinutes(5),
+                    () -> {
+                        int problems = walletLedgerService.reconcile();
+                        System.out.println("Wallet Reconciliation Job found " + problems + " problems");
+                    });
+        } catch (Exception e) {
+            System.err.println("Error in Wallet Reconciliation Job: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.BookingRepository;
+import com.staylio.backend.Repo.HotelRepository;
+import com.staylio.backend.Repo.RoomInventoryRepository;
+import com.staylio.backend.dto.HotelAvailabilityDTO;
+import com.staylio.backend.dto.RoomAvailabilityDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Transactional(readOnly = true)
+public class AvailabilityService {
+
+    public static final int MAX_BATCH_SIZE = 50;
+
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    // Check a single hotel
+    public boolean isAvailable(Long hotelId, LocalDate checkIn, LocalDate checkOut, Integer rooms) {
+        return getAvailability(List.of(hotelId), checkIn, checkOut, rooms).get(hotelId).isAvailable();
+    }
+
+    // Remaining rooms per room type for many hotels, answered with a fixed number of
+    // aggregate queries regardless of how many hotels are asked for
+    public Map<Long, HotelAvailabilityDTO> getAvailability(Collection<Long> hotelIds, LocalDate checkIn,
+            LocalDate checkOut, Integer rooms) {
+        if (checkIn == null || checkOut == null || checkIn.isAfter(checkOut)) {
+            throw new IllegalArgumentException("Check-in date must be before check-out date");
+        }
+        Set<Long> ids = new LinkedHashSet<>(hotelIds);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " hotels can be checked at once");
+        }
+
+        // A same-day stay still occupies the check-in night
+        LocalDate endDate = checkOut.isAfter(checkIn) ? checkOut : checkIn.plusDays(1);
+        int requested = rooms != null && rooms > 0 ? rooms : 1;
+
+        Map<Long, HotelAvailabilityDTO> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            result.put(id, new HotelAvailabilityDTO(id));
+        }
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        // Hotels with room types: nightly ledger
+        for (RoomAvailabilityDTO room : roomInventoryRepository.findRoomAvailability(ids, checkIn, endDate)) {
+            HotelAvailabilityDTO hotel = result.get(room.getHotelId());
+            hotel.getRoomTypes().add(room);
+            hotel.setRemainingRooms(hotel.getRemainingRooms() + room.getRemainingRooms());
+            if (room.getRemainingRooms() >= requested) {
+                hotel.setAvailable(true);
+            }
+        }
+
+        // Hotels without room types: hotel total minus rooms held by overlapping bookings.
+        // Summing overlapping bookings over-counts stays that do not share a night, which
+        // errs on the side of reporting fewer rooms.
+        Set<Long> untracked = new LinkedHashSet<>();
+        for (HotelAvailabilityDTO hotel : result.values()) {
+            if (hotel.getRoomTypes().isEmpty()) {
+                untracked.add(hotel.getHotelId());
+            }
+        }
+        if (!untracked.isEmpty()) {
+            Map<Long, Integer> booked = toIntMap(bookingRepository.sumBookedRoomsByHotel(untracked, checkIn, endDate));
+            for (Object[] row : hotelRepository.findTotalRoomsByIds(untracked)) {
+                Long hotelId = (Long) row[0];
+                int total = row[1] != null ? ((Number) row[1]).intValue() : 0;
+                int remaining = Math.max(0, total - booked.getOrDefault(hotelId, 0));
+                HotelAvailabilityDTO hotel = result.get(hotelId);
+                hotel.setRemainingRooms(remaining);
+                hotel.setAvailable(remaining >= requested);
+            }
+        }
+
+        return result;
+    }
+
+    private Map<Long, Integer> toIntMap(List<Object[]> rows) {
+        Map<Long, Integer> map = new HashMap<>();
+        for (Object[] row : rows) {
+            map.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        return map;
+    }
+}
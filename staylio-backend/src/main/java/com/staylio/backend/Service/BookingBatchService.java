@@ -0,0 +1,188 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.BookingRepository;
+import com.staylio.backend.Repo.HotelRepository;
+import com.staylio.backend.model.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+// Nightly booking status jobs. Candidates are read as pages of ids (keyset on id) and
+// each page is processed as one chunk in its own transaction on a small fixed pool
+// (bookingBatchExecutor): the chunk's rows are locked, moved to the new status with
+// one bulk update, and their side effects (inventory release, host settlement) are
+// applied in bulk. At most PARALLELISM chunks are in flight, so memory stays flat
+// however many bookings are due. Day to day, transitions are applied as they come due
+// by BookingLifecycleService; these sweeps catch anything the queue missed.
+//
+// Auto-cancel chunks run fully in parallel. Auto-complete chunks with paid bookings
+// all lock the single admin wallet row to settle them, so their settlement steps
+// queue behind each other; only the reads and status updates overlap.
+@Service
+public class BookingBatchService {
+
+    private static final int CHUNK_SIZE = 500;
+    public static final int PARALLELISM = 4;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("bookingBatchExecutor")
+    private ThreadPoolTaskExecutor executor;
+
+    // Cancel pending bookings whose check-in date has passed and free their rooms.
+    // Only bookings with id % shards == shard are handled; use (0, 1) for all of them.
+    public int autoCancelOverdueBookings(int shard, int shards) {
+        LocalDate today = LocalDate.now();
+        return runInChunks("Auto-Cancel",
+                afterId -> bookingRepository.findPendingOverdueIds(today, afterId, shard, shards,
+                        Limit.of(CHUNK_SIZE)),
+                this::cancelChunk);
+    }
+
+    // Complete confirmed bookings whose check-out date has passed and settle paid ones with the host
+    public int autoCompleteFinishedBookings(int shard, int shards) {
+        LocalDate today = LocalDate.now();
+        return runInChunks("Auto-Complete",
+                afterId -> bookingRepository.findConfirmedFinishedIds(today, afterId, shard, shards,
+                        Limit.of(CHUNK_SIZE)),
+                this::completeChunk);
+    }
+
+    // Cancel the given bookings that are still pending. Must run inside the caller's
+    // transaction; also used for transitions taken from the booking delay queue.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int cancelChunk(List<Long> ids) {
+        // Rows that changed status since the page was read are skipped
+        List<Booking> bookings = bookingRepository.lockByIdsAndStatus(ids, Booking.BookingStatus.PENDING);
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+        bookingRepository.updateStatus(idsOf(bookings), Booking.BookingStatus.CANCELLED, LocalDateTime.now());
+        // No refund needed for pending (unpaid/unconfirmed) bookings
+        roomInventoryService.releaseAll(bookings);
+        return bookings.size();
+    }
+
+    // Complete the given bookings that are still confirmed, settling paid ones. A paid
+    // booking the admin wallet cannot cover yet stays CONFIRMED, so the next run retries it.
+    // Paid bookings of hotels that no longer exist (or have no host) have no one to settle
+    // with and are completed without settlement.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int completeChunk(List<Long> ids) {
+        List<Booking> bookings = bookingRepository.lockByIdsAndStatus(ids, Booking.BookingStatus.CONFIRMED);
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+
+        // Only online payments (SUCCESS/PAID) are settled from the admin wallet;
+        // pay-at-hotel bookings need no settlement
+        List<Booking> paid = bookings.stream()
+                .filter(booking -> "SUCCESS".equalsIgnoreCase(booking.getPaymentStatus())
+                        || "PAID".equalsIgnoreCase(booking.getPaymentStatus()))
+                .toList();
+        Set<Long> unsettled = new HashSet<>(idsOf(paid));
+        if (!paid.isEmpty()) {
+            Map<Long, Long> hostByHotel = new HashMap<>();
+            for (Object[] row : hotelRepository.findHostIdsByIds(paid.stream().map(Booking::getHotelId).distinct().toList())) {
+                hostByHotel.put((Long) row[0], (Long) row[1]);
+            }
+            List<WalletService.HostSettlement> settlements = new ArrayList<>();
+            for (Booking booking : paid) {
+                Long hostId = hostByHotel.get(booking.getHotelId());
+                if (hostId != null) {
+                    settlements.add(new WalletService.HostSettlement(booking.getId(), hostId, booking.getTotalAmount()));
+                } else {
+                    unsettled.remove(booking.getId());
+                }
+            }
+            // The admin wallet lock is held from here until this chunk commits
+            unsettled.removeAll(walletService.processHostSettlements(settlements));
+        }
+
+        List<Long> completed = bookings.stream()
+                .map(Booking::getId)
+                .filter(id -> !unsettled.contains(id))
+                .toList();
+        if (!completed.isEmpty()) {
+            bookingRepository.updateStatus(completed, Booking.BookingStatus.COMPLETED, LocalDateTime.now());
+        }
+        return completed.size();
+    }
+
+    private int runInChunks(String job, Function<Long, List<Long>> nextPage, Function<List<Long>, Integer> chunk) {
+        Deque<Future<Integer>> inFlight = new ArrayDeque<>();
+        int processed = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = nextPage.apply(afterId);
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            if (inFlight.size() >= PARALLELISM) {
+                processed += await(job, inFlight.poll());
+            }
+            inFlight.add(executor.submitCompletable(() -> transactionTemplate.execute(status -> chunk.apply(ids))));
+            if (ids.size() < CHUNK_SIZE) {
+                break;
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            processed += await(job, inFlight.poll());
+        }
+        System.out.println(job + " processed " + processed + " bookings");
+        return processed;
+    }
+
+    // A failed chunk rolls back on its own; its bookings are picked up by the next run
+    private int await(String job, Future<Integer> future) {
+        try {
+            Integer count = future.get();
+            return count != null ? count : 0;
+        } catch (ExecutionException e) {
+            System.err.println("Error in " + job + " chunk: " + e.getCause().getMessage());
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(job + " interrupted", e);
+        }
+    }
+
+    private static List<Long> idsOf(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).toList();
+    }
+
+}
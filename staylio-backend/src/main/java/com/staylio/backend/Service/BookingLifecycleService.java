@@ -0,0 +1,155 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.BookingTransitionRepository;
+import com.staylio.backend.model.Booking;
+import com.staylio.backend.model.BookingTransition;
+import com.staylio.backend.model.BookingTransition.TransitionType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Automatic booking transitions driven by a persistent delay queue (booking_transitions).
+// A due time is registered when a booking is created (auto-cancel if still pending once
+// check-in has passed) and when it is confirmed (auto-complete at check-out). The
+// queue is polled every few seconds, so each booking is handled shortly after it
+// comes due instead of all of them at midnight, and pending entries survive restarts
+// because they live in the database.
+@Service
+public class BookingLifecycleService {
+
+    private static final int BATCH_SIZE = 500;
+    // Standard check-out time; bookings complete once it has passed on the check-out date
+    private static final LocalTime CHECK_OUT_TIME = LocalTime.of(11, 0);
+    // Due times are spread over this window (stable per booking) so bookings sharing a
+    // date do not all come due in the same second
+    private static final int JITTER_SECONDS = 3600;
+    // A transition that fails is retried after 1 minute, doubling up to 6 hours
+    private static final long BASE_RETRY_SECONDS = 60;
+    private static final long MAX_RETRY_SECONDS = 6 * 60 * 60;
+
+    @Autowired
+    private BookingTransitionRepository bookingTransitionRepository;
+
+    @Autowired
+    private BookingBatchService bookingBatchService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Register the transition the booking's current status is waiting for
+    public void register(Booking booking) {
+        if (booking.getId() == null || booking.getStatus() == null) {
+            return;
+        }
+        switch (booking.getStatus()) {
+            case PENDING -> {
+                if (booking.getCheckInDate() != null) {
+                    schedule(booking.getId(), TransitionType.AUTO_CANCEL,
+                            booking.getCheckInDate().plusDays(1).atStartOfDay());
+                }
+            }
+            case CONFIRMED -> {
+                if (booking.getCheckOutDate() != null) {
+                    schedule(booking.getId(), TransitionType.AUTO_COMPLETE,
+                            booking.getCheckOutDate().atTime(CHECK_OUT_TIME));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    public void unregister(Long bookingId) {
+        transactionTemplate.executeWithoutResult(status -> bookingTransitionRepository.deleteByBookingId(bookingId));
+    }
+
+    private void schedule(Long bookingId, TransitionType type, LocalDateTime at) {
+        LocalDateTime dueAt = at.plusSeconds(Math.floorMod(bookingId * 2654435761L, JITTER_SECONDS));
+        BookingTransition transition = bookingTransitionRepository.findByBookingIdAndTransition(bookingId, type)
+                .orElseGet(() -> new BookingTransition(bookingId, type, dueAt));
+        transition.setDueAt(dueAt);
+        transition.setAttempts(0);
+        bookingTransitionRepository.save(transition);
+    }
+
+    // Apply every transition that has come due. Safe to run on several instances: a
+    // batch is claimed by deleting its queue rows, and the booking status check in
+    // BookingBatchService skips bookings another instance has already moved on.
+    // Failures are isolated per booking and retried with backoff.
+    public int processDue() {
+        int processed = 0;
+        while (true) {
+            List<BookingTransition> due = bookingTransitionRepository
+                    .findByDueAtLessThanEqualOrderByDueAt(LocalDateTime.now(), Limit.of(BATCH_SIZE));
+            if (due.isEmpty()) {
+                break;
+            }
+            Map<TransitionType, List<BookingTransition>> byType = new EnumMap<>(TransitionType.class);
+            for (BookingTransition transition : due) {
+                byType.computeIfAbsent(transition.getTransition(), type -> new ArrayList<>()).add(transition);
+            }
+            for (Map.Entry<TransitionType, List<BookingTransition>> entry : byType.entrySet()) {
+                processed += applyIsolated(entry.getKey(), entry.getValue());
+            }
+            if (due.size() < BATCH_SIZE) {
+                break;
+            }
+        }
+        return processed;
+    }
+
+    // Apply a batch in one transaction; if it fails, retry its entries one by one so a
+    // single bad booking cannot hold up the rest, and postpone the ones that still fail
+    private int applyIsolated(TransitionType type, List<BookingTransition> transitions) {
+        try {
+            return apply(type, transitions);
+        } catch (RuntimeException batchError) {
+            if (transitions.size() == 1) {
+                postpone(transitions.get(0), batchError);
+                return 0;
+            }
+        }
+        int processed = 0;
+        for (BookingTransition transition : transitions) {
+            try {
+                processed += apply(type, List.of(transition));
+            } catch (RuntimeException e) {
+                postpone(transition, e);
+            }
+        }
+        return processed;
+    }
+
+    private void postpone(BookingTransition transition, RuntimeException cause) {
+        int attempts = transition.getAttempts() + 1;
+        long delay = Math.min(BASE_RETRY_SECONDS << Math.min(attempts - 1, 20), MAX_RETRY_SECONDS);
+        // If this fails too the database is likely down; the caller stops and the row
+        // stays due for the next poll
+        bookingTransitionRepository.postpone(transition.getId(), attempts, LocalDateTime.now().plusSeconds(delay));
+        System.err.println("Error applying " + transition.getTransition() + " to booking " + transition.getBookingId()
+                + " (attempt " + attempts + "), retrying in " + delay + "s: " + cause.getMessage());
+    }
+
+    private int apply(TransitionType type, List<BookingTransition> transitions) {
+        List<Long> ids = transitions.stream().map(BookingTransition::getId).toList();
+        List<Long> bookingIds = transitions.stream().map(BookingTransition::getBookingId).toList();
+        Integer count = transactionTemplate.execute(status -> {
+            if (bookingTransitionRepository.deleteByIds(ids) == 0) {
+                // Claimed by another instance
+                return 0;
+            }
+            return type == TransitionType.AUTO_CANCEL
+                    ? bookingBatchService.cancelChunk(bookingIds)
+                    : bookingBatchService.completeChunk(bookingIds);
+        });
+        return count != null ? count : 0;
+    }
+}
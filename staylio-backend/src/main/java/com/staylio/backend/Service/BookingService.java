@@ -4,7 +4,6 @@ import com.staylio.backend.model.Booking;
 import com.staylio.backend.model.Hotel;
 import com.staylio.backend.model.User;
 import com.staylio.backend.model.Host;
-import com.staylio.backend.model.Room;
 import org.springframework.transaction.annotation.Transactional;
 import com.staylio.backend.Repo.BookingRepository;
 import com.staylio.backend.Repo.HotelRepository;
@@ -35,7 +34,10 @@ public class BookingService {
     private HostRepository hostRepository;
 
     @Autowired
-    private com.staylio.backend.Repo.RoomRepository roomRepository;
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
 
     @Autowired
     private EmailService emailService;
@@ -43,6 +45,9 @@ public class BookingService {
     @Autowired
     private WalletService walletService;
 
+    @Autowired
+    private BookingLifecycleService bookingLifecycleService;
+
     // Get all bookings
     public List<Booking> getAllBookings() {
         return bookingRepository.findAll();
@@ -136,25 +141,11 @@ public class BookingService {
             booking.setTotalAmount(subtotal.add(tax));
         }
 
-        // Check availability (basic check - can be enhanced)
-        List<Booking> overlappingBookings = bookingRepository.findOverlappingBookings(
-                booking.getHotelId(), booking.getCheckInDate(), booking.getCheckOutDate());
-
-        // Inventory Count Update
-        if (booking.getRoomType() != null) {
-            Optional<Room> roomOpt = roomRepository.findByHotelIdAndRoomType(booking.getHotelId(),
-                    booking.getRoomType());
-            if (roomOpt.isPresent()) {
-                Room room = roomOpt.get();
-                if (room.getRoomCount() <= 0) {
-                    throw new IllegalStateException("This room is no longer available.");
-                }
-                room.setRoomCount(room.getRoomCount() - 1);
-                roomRepository.save(room);
-            }
-        }
+        // Reserve nightly inventory for the whole stay
+        roomInventoryService.reserve(booking);
 
         Booking savedBooking = bookingRepository.save(booking);
+        bookingLifecycleService.register(savedBooking);
 
         // Send Confirmation Email
         if (savedBooking.getGuestEmail() != null) {
@@ -181,6 +172,7 @@ public class BookingService {
     }
 
     // Update booking
+    @Transactional
     public Booking updateBooking(Long id, Booking bookingDetails) {
         Booking existingBooking = getBookingById(id);
 
@@ -198,17 +190,37 @@ public class BookingService {
             existingBooking.setSpecialRequests(bookingDetails.getSpecialRequests());
         }
         if (bookingDetails.getStatus() != null) {
-            existingBooking.setStatus(bookingDetails.getStatus());
+            changeStatus(existingBooking, bookingDetails.getStatus());
         }
 
-        return bookingRepository.save(existingBooking);
+        Booking savedBooking = bookingRepository.save(existingBooking);
+        if (bookingDetails.getStatus() != null) {
+            bookingLifecycleService.register(savedBooking);
+        }
+        return savedBooking;
     }
 
     // Update booking status
+    @Transactional
     public Booking updateBookingStatus(Long id, Booking.BookingStatus status) {
         Booking booking = getBookingById(id);
+        changeStatus(booking, status);
+        Booking savedBooking = bookingRepository.save(booking);
+        bookingLifecycleService.register(savedBooking);
+        return savedBooking;
+    }
+
+    // Set a status chosen by an admin or host, keeping nightly inventory in step:
+    // cancelling gives the rooms back, reopening a cancelled booking takes them again
+    private void changeStatus(Booking booking, Booking.BookingStatus status) {
+        boolean wasCancelled = booking.getStatus() == Booking.BookingStatus.CANCELLED;
+        if (status == Booking.BookingStatus.CANCELLED && !wasCancelled) {
+            roomInventoryService.release(booking);
+        } else if (wasCancelled && (status == Booking.BookingStatus.PENDING
+                || status == Booking.BookingStatus.CONFIRMED)) {
+            roomInventoryService.reserve(booking);
+        }
         booking.setStatus(status);
-        return bookingRepository.save(booking);
     }
 
     // Handle Payment Success / Update Details
@@ -259,16 +271,8 @@ public class BookingService {
             throw new IllegalStateException("Cannot cancel booking on or after check-in date.");
         }
 
-        // Increment Inventory
-        if (booking.getRoomType() != null) {
-            Optional<Room> roomOpt = roomRepository.findByHotelIdAndRoomType(booking.getHotelId(),
-                    booking.getRoomType());
-            if (roomOpt.isPresent()) {
-                Room room = roomOpt.get();
-                room.setRoomCount(room.getRoomCount() + 1);
-                roomRepository.save(room);
-            }
-        }
+        // Release nightly inventory
+        roomInventoryService.release(booking);
 
         // Determine Refund Status - Standard Policy: 24h notice
         LocalDate checkIn = booking.getCheckInDate();
@@ -355,66 +359,25 @@ public class BookingService {
 
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
         booking.setUpdatedAt(java.time.LocalDateTime.now());
-        return bookingRepository.save(booking);
-    }
-
-    // Auto-Cancel Overdue Pending Bookings (System Logic)
-    public void autoCancelOverdueBookings() {
-        List<Booking> overdueBookings = bookingRepository.findPendingOverdueBookings(LocalDate.now());
-        for (Booking booking : overdueBookings) {
-            booking.setStatus(Booking.BookingStatus.CANCELLED);
-            booking.setUpdatedAt(java.time.LocalDateTime.now());
-            // No refund needed for pending (unpaid/unconfirmed) usually, or handle logic
-            bookingRepository.save(booking);
-            System.out.println("Auto-cancelled overdue pending booking: " + booking.getId());
-        }
-    }
-
-    // Auto-Complete Finished Bookings (System Logic)
-    public void autoCompleteFinishedBookings() {
-        List<Booking> finishedBookings = bookingRepository.findConfirmedCompletedBookings(LocalDate.now());
-        for (Booking booking : finishedBookings) {
-            try {
-                booking.setStatus(Booking.BookingStatus.COMPLETED);
-                booking.setUpdatedAt(java.time.LocalDateTime.now());
-                bookingRepository.save(booking);
-
-                // Settlement Logic
-                // Only if payment was SUCCESS/PAID (Online) - Pay at Hotel doesn't need
-                // settlement from Admin
-                if ("SUCCESS".equalsIgnoreCase(booking.getPaymentStatus())
-                        || "PAID".equalsIgnoreCase(booking.getPaymentStatus())) {
-                    Optional<Hotel> hotelOpt = hotelRepository.findById(booking.getHotelId());
-                    if (hotelOpt.isPresent()) {
-                        Long hostId = hotelOpt.get().getHostId();
-                        if (hostId != null) {
-                            walletService.processHostSettlement(hostId, booking.getTotalAmount(), booking.getId());
-                            System.out.println("Settlement processed for booking: " + booking.getId());
-                        }
-                    }
-                }
-
-                System.out.println("Auto-completed finished booking: " + booking.getId());
-            } catch (Exception e) {
-                System.err.println("Error auto-completing booking " + booking.getId() + ": " + e.getMessage());
-            }
-        }
+        Booking savedBooking = bookingRepository.save(booking);
+        bookingLifecycleService.register(savedBooking);
+        return savedBooking;
     }
 
-    // Delete booking
+    // Delete booking, giving back the rooms of a stay that still holds them
+    @Transactional
     public void deleteBooking(Long id) {
         Booking booking = getBookingById(id);
+        if (booking.getStatus() != Booking.BookingStatus.COMPLETED) {
+            roomInventoryService.release(booking);
+        }
         bookingRepository.delete(booking);
+        bookingLifecycleService.unregister(id);
     }
 
     // Check availability for a hotel on given dates
     public boolean checkAvailability(Long hotelId, LocalDate checkIn, LocalDate checkOut, Integer rooms) {
-        List<Booking> overlappingBookings = bookingRepository.findOverlappingBookings(hotelId, checkIn, checkOut);
-
-        // Simple availability check - in a real system, you'd check actual room
-        // inventory
-        // For now, assume hotel has unlimited rooms or implement basic logic
-        return overlappingBookings.size() < 10; // Arbitrary limit for demo
+        return availabilityService.isAvailable(hotelId, checkIn, checkOut, rooms);
     }
 
     // Get booking statistics
@@ -1,29 +1,197 @@
 package com.staylio.backend.Service;
 
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.staylio.backend.dto.ChatbotRequest;
 import com.staylio.backend.dto.ChatbotResponse;
-import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Forwards chatbot queries to the Python AI agent over the shared HTTP client. Calls
+// are asynchronous, so no request thread waits on the agent. At most
+// max-concurrent-requests calls are in flight, and a circuit breaker fails fast
+// while the agent keeps failing. A call, body included, is given up on after
+// ai.agent.timeout; the servlet async timeout is not relied on for that.
 @Service
 public class ChatbotService {
 
+    // Consecutive failures that open the circuit, and how long it then stays open
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
     @Value("${ai.agent.url:http://localhost:5000/agent/query}")
     private String aiAgentUrl;
 
-    public ChatbotResponse processQuery(ChatbotRequest request) {
-        RestTemplate restTemplate = new RestTemplate();
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    @Value("${ai.agent.timeout:30s}")
+    private Duration timeout;
+
+    @Autowired
+    private HttpClient httpClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Semaphore permits;
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(FAILURE_THRESHOLD, OPEN_DURATION.toMillis());
+
+    public ChatbotService(@Value("${ai.agent.max-concurrent-requests:50}") int maxConcurrentRequests) {
+        this.permits = new Semaphore(maxConcurrentRequests);
+    }
+
+    // Completes with the agent's answer, or exceptionally with a ResponseStatusException
+    // (503 when the agent is unavailable or busy, 504 on timeout, 502 on a bad reply)
+    public CompletableFuture<ChatbotResponse> processQuery(ChatbotRequest request) {
+        if (!circuitBreaker.allowRequest()) {
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "AI agent is unavailable"));
+        }
+        if (!permits.tryAcquire()) {
+            circuitBreaker.release();
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "AI agent is busy"));
+        }
+        try {
+            HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(aiAgentUrl))
+                    .timeout(timeout)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)))
+                    .build();
+            CompletableFuture<HttpResponse<byte[]>> exchange = httpClient.sendAsync(httpRequest,
+                    HttpResponse.BodyHandlers.ofByteArray());
+            return exchange
+                    .thenApply(this::toChatbotResponse)
+                    // The request timeout only covers the response headers
+                    .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((response, error) -> {
+                        // Aborts the exchange if it is still running
+                        exchange.cancel(true);
+                        permits.release();
+                        circuitBreaker.record(error == null || !isAgentFailure(error));
+                    })
+                    .exceptionally(error -> {
+                        throw toStatusException(error);
+                    });
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            circuitBreaker.release();
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Could not call the AI agent", e));
+        }
+    }
+
+    // This expects the Python service to return the exact structure of ChatbotResponse
+    private ChatbotResponse toChatbotResponse(HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status >= 500) {
+            throw new AgentFailure("AI agent returned HTTP " + status);
+        }
+        if (status != 200) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "AI agent returned HTTP " + status);
+        }
+        try {
+            return objectMapper.readValue(response.body(), ChatbotResponse.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Failures that say the agent is down or overloaded, as opposed to a bad request or reply
+    private static boolean isAgentFailure(Throwable error) {
+        Throwable cause = unwrap(error);
+        return cause instanceof AgentFailure || cause instanceof TimeoutException
+                || (cause instanceof IOException && !(cause instanceof JacksonException));
+    }
+
+    private static ResponseStatusException toStatusException(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof ResponseStatusException statusException) {
+            return statusException;
+        }
+        if (cause instanceof HttpTimeoutException || cause instanceof TimeoutException) {
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "AI agent timed out", cause);
+        }
+        if (cause instanceof AgentFailure || cause instanceof ConnectException) {
+            return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, cause.getMessage(), cause);
+        }
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Bad reply from the AI agent", cause);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof UncheckedIOException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static final class AgentFailure extends RuntimeException {
+        AgentFailure(String message) {
+            super(message);
+        }
+    }
+
+    // Closed: calls go through and consecutive failures are counted. Open: calls are
+    // rejected until openMs has passed. Half-open: a single trial call decides whether
+    // the circuit closes again or reopens.
+    static final class CircuitBreaker {
+        private final int failureThreshold;
+        private final long openMs;
+        private int failures;
+        private long openedAt = -1;
+        private boolean trialInFlight;
+
+        CircuitBreaker(int failureThreshold, long openMs) {
+            this.failureThreshold = failureThreshold;
+            this.openMs = openMs;
+        }
+
+        synchronized boolean allowRequest() {
+            if (openedAt < 0) {
+                return true;
+            }
+            if (trialInFlight || System.currentTimeMillis() - openedAt < openMs) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
 
-        HttpEntity<ChatbotRequest> entity = new HttpEntity<>(request, headers);
+        // A call that was allowed but never made
+        synchronized void release() {
+            trialInFlight = false;
+        }
 
-        // This expects the Python service to return the exact structure of
-        // ChatbotResponse
-        return restTemplate.postForObject(aiAgentUrl, entity, ChatbotResponse.class);
+        synchronized void record(boolean success) {
+            boolean trial = trialInFlight;
+            trialInFlight = false;
+            if (success) {
+                failures = 0;
+                openedAt = -1;
+            } else if (trial || ++failures >= failureThreshold) {
+                openedAt = System.currentTimeMillis();
+            }
+        }
     }
 }
@@ -0,0 +1,393 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.EmailOutboxRepository;
+import com.staylio.backend.model.EmailOutbox;
+import com.staylio.backend.model.EmailOutbox.OutboxStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Transactional outbox for outgoing mail. Callers only insert a row, in their own
+// transaction, so a rolled back booking never sends a confirmation and a slow SMTP
+// server never holds up a request. A small fixed pool of workers delivers the rows in
+// batches, one SMTP connection per batch, retrying failures with exponential backoff
+// and parking them as DEAD after MAX_ATTEMPTS.
+@Service
+public class EmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    private static final int WORKERS = 4;
+    // Batches waiting for a worker
+    private static final int QUEUE_CAPACITY = 20;
+    // Messages sent over one SMTP connection
+    private static final int BATCH_SIZE = 20;
+    private static final int MAX_SCAN = 500;
+    // Per recipient domain, so a burst to one provider does not get us throttled there
+    private static final int DOMAIN_MESSAGES_PER_MINUTE = 60;
+    public static final int MAX_ATTEMPTS = 6;
+    private static final long BASE_BACKOFF_SECONDS = 30;
+    private static final long MAX_BACKOFF_SECONDS = 60 * 60;
+    // How long a claimed row stays with one worker before others may retry it
+    private static final long SEND_LEASE_SECONDS = 120;
+
+    private static final Set<OutboxStatus> DISPATCHABLE = EnumSet.of(OutboxStatus.PENDING, OutboxStatus.SENDING);
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired(required = false)
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.mail.from:noreply@staylio.com}")
+    private String fromEmail;
+
+    @Value("${spring.mail.from.name:StayLio}")
+    private String fromName;
+
+    private final ThreadPoolExecutor workers = new ThreadPoolExecutor(WORKERS, WORKERS, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY), namedThreads("email-outbox-"));
+
+    private final DomainRateLimiter rateLimiter = new DomainRateLimiter(DOMAIN_MESSAGES_PER_MINUTE);
+
+    private Counter sentCounter;
+    private Counter retryCounter;
+    private Counter deadCounter;
+    private Counter throttledCounter;
+    private Timer batchTimer;
+
+    // Single thread that runs dispatchDue() right after an enqueue commits
+    private final ExecutorService wakeUp = Executors.newSingleThreadExecutor(namedThreads("email-outbox-wakeup-"));
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    // Throughput metrics, available under /actuator/metrics/email.outbox.*
+    @PostConstruct
+    public void registerMetrics() {
+        sentCounter = Counter.builder("email.outbox.sent").description("Emails delivered").register(meterRegistry);
+        retryCounter = Counter.builder("email.outbox.failed").tag("outcome", "retry")
+                .description("Failed deliveries that will be retried").register(meterRegistry);
+        deadCounter = Counter.builder("email.outbox.failed").tag("outcome", "dead")
+                .description("Emails given up on").register(meterRegistry);
+        throttledCounter = Counter.builder("email.outbox.throttled")
+                .description("Emails postponed by the per-domain rate limit").register(meterRegistry);
+        batchTimer = Timer.builder("email.outbox.batch").description("Time to send one SMTP batch")
+                .register(meterRegistry);
+        Gauge.builder("email.outbox.queued.batches", workers, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    // Queue a message; it is persisted with the caller's transaction and sent after commit.
+    // Either part may be null; with both, the text is sent as the plain alternative.
+    public EmailOutbox enqueue(String to, String subject, String htmlBody, String textBody) {
+        EmailOutbox email = htmlBody != null
+                ? new EmailOutbox(to, subject, htmlBody, true)
+                : new EmailOutbox(to, subject, textBody, false);
+        if (htmlBody != null) {
+            email.setTextBody(textBody);
+        }
+        EmailOutbox saved = emailOutboxRepository.save(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestDispatch();
+                }
+            });
+        } else {
+            requestDispatch();
+        }
+        return saved;
+    }
+
+    // Several enqueues in a row only trigger one extra dispatch
+    private void requestDispatch() {
+        if (!wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            wakeUp.execute(() -> {
+                wakeUpPending.set(false);
+                dispatchDue();
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the scheduler picks the row up on the next start
+            wakeUpPending.set(false);
+        }
+    }
+
+    // Claim due rows and hand them to the worker pool in batches, never more than it can queue
+    public synchronized int dispatchDue() {
+        int capacity = workers.getQueue().remainingCapacity();
+        if (capacity == 0 || workers.isShutdown()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int scanLimit = Math.min(capacity * BATCH_SIZE, MAX_SCAN);
+        List<Object[]> due = emailOutboxRepository.findDue(DISPATCHABLE, now, Limit.of(scanLimit));
+        int dispatched = 0;
+        List<Long> batch = new ArrayList<>(BATCH_SIZE);
+        String token = UUID.randomUUID().toString();
+        for (Object[] row : due) {
+            Long id = (Long) row[0];
+            int claimed = emailOutboxRepository.claim(id, DISPATCHABLE, OutboxStatus.SENDING, now,
+                    now.plusSeconds(SEND_LEASE_SECONDS), token);
+            if (claimed == 0) {
+                // Another dispatcher got it first; no send budget is spent on it
+                continue;
+            }
+            long waitMs = rateLimiter.tryAcquire(domainOf((String) row[1]));
+            if (waitMs > 0) {
+                // Over the domain's budget; hand the row back until it has refilled
+                emailOutboxRepository.defer(id, token, OutboxStatus.SENDING, OutboxStatus.PENDING,
+                        now.plusNanos(waitMs * 1_000_000));
+                throttledCounter.increment();
+                continue;
+            }
+            batch.add(id);
+            if (batch.size() == BATCH_SIZE) {
+                if (!submit(batch, token)) {
+                    return dispatched;
+                }
+                dispatched += batch.size();
+                batch = new ArrayList<>(BATCH_SIZE);
+                token = UUID.randomUUID().toString();
+            }
+        }
+        if (!batch.isEmpty() && submit(batch, token)) {
+            dispatched += batch.size();
+        }
+        return dispatched;
+    }
+
+    private boolean submit(List<Long> batch, String token) {
+        try {
+            workers.execute(() -> deliverBatch(batch, token));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Left as SENDING; they become due again when the lease runs out
+            return false;
+        }
+    }
+
+    // Send a batch over a single SMTP connection and record each message's outcome.
+    // Outcomes are only written for rows still held under this batch's claim token: if
+    // the lease ran out and another worker re-claimed a row, that worker owns it now.
+    private void deliverBatch(List<Long> ids, String token) {
+        List<EmailOutbox> emails = emailOutboxRepository.findAllById(ids).stream()
+                .filter(email -> email.getStatus() == OutboxStatus.SENDING && token.equals(email.getClaimToken()))
+                .toList();
+        if (emails.isEmpty()) {
+            return;
+        }
+        if (mailSender == null) {
+            IllegalStateException notConfigured = new IllegalStateException("Mail sender is not configured");
+            emails.forEach(email -> recordFailure(email, token, notConfigured));
+            return;
+        }
+
+        Map<MimeMessage, EmailOutbox> messages = new LinkedHashMap<>();
+        for (EmailOutbox email : emails) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (Exception e) {
+                // A malformed address only fails its own message
+                recordFailure(email, token, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failed = new HashMap<>();
+        Timer.Sample sample = Timer.start();
+        try {
+            mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failed.putAll(e.getFailedMessages());
+            if (failed.isEmpty()) {
+                messages.keySet().forEach(message -> failed.put(message, e));
+            }
+        } catch (Exception e) {
+            // Connection or authentication failure: nothing in the batch went out
+            messages.keySet().forEach(message -> failed.put(message, e));
+        } finally {
+            sample.stop(batchTimer);
+        }
+
+        List<Long> sent = new ArrayList<>();
+        for (Map.Entry<MimeMessage, EmailOutbox> entry : messages.entrySet()) {
+            EmailOutbox email = entry.getValue();
+            Exception error = failed.get(entry.getKey());
+            if (error != null) {
+                recordFailure(email, token, error);
+            } else {
+                sent.add(email.getId());
+            }
+        }
+        if (!sent.isEmpty()) {
+            sentCounter.increment(sent.size());
+            int recorded = emailOutboxRepository.markSent(sent, token, OutboxStatus.SENDING, OutboxStatus.SENT,
+                    LocalDateTime.now());
+            if (recorded < sent.size()) {
+                // The lease ran out mid-send; those rows may go out once more from their new owner
+                logger.warn("Lost the claim on {} of {} sent emails before recording them", sent.size() - recorded,
+                        sent.size());
+            }
+        }
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox email) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, email.getHtml(), "UTF-8");
+        helper.setFrom(fromEmail, fromName);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        if (email.getHtml() && email.getTextBody() != null) {
+            helper.setText(email.getTextBody(), email.getBody());
+        } else {
+            helper.setText(email.getBody(), email.getHtml());
+        }
+        return message;
+    }
+
+    private static String domainOf(String recipient) {
+        int at = recipient != null ? recipient.lastIndexOf('@') : -1;
+        return at >= 0 ? recipient.substring(at + 1).trim().toLowerCase() : "";
+    }
+
+    private void recordFailure(EmailOutbox email, String token, Exception e) {
+        int attempts = email.getAttempts() + 1;
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        boolean dead = attempts >= MAX_ATTEMPTS;
+        // 30s, 1m, 2m, 4m, ... capped at an hour
+        long delay = dead ? 0 : Math.min(BASE_BACKOFF_SECONDS << (attempts - 1), MAX_BACKOFF_SECONDS);
+        int recorded;
+        try {
+            recorded = emailOutboxRepository.markFailed(email.getId(), token, OutboxStatus.SENDING,
+                    dead ? OutboxStatus.DEAD : OutboxStatus.PENDING, attempts,
+                    error.length() > 1000 ? error.substring(0, 1000) : error,
+                    dead ? email.getNextAttemptAt() : LocalDateTime.now().plusSeconds(delay));
+        } catch (Exception saveError) {
+            // The lease expires and the row is retried anyway
+            logger.error("Could not record failure for email {}: {}", email.getId(), saveError.getMessage());
+            return;
+        }
+        if (recorded == 0) {
+            logger.warn("Lost the claim on email {} before recording its failure: {}", email.getId(), error);
+        } else if (dead) {
+            deadCounter.increment();
+            logger.error("Giving up on email {} to {} after {} attempts: {}", email.getId(), email.getRecipient(),
+                    attempts, error);
+        } else {
+            retryCounter.increment();
+            logger.warn("Failed to send email {} to {} (attempt {}), retrying in {}s: {}", email.getId(),
+                    email.getRecipient(), attempts, delay, error);
+        }
+    }
+
+    // Remove delivered rows older than the given number of days
+    public int purgeSent(int olderThanDays) {
+        return emailOutboxRepository.deleteByStatusAndSentAtBefore(OutboxStatus.SENT,
+                LocalDateTime.now().minusDays(olderThanDays));
+    }
+
+    public long countDead() {
+        return emailOutboxRepository.countByStatus(OutboxStatus.DEAD);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wakeUp.shutdownNow();
+        workers.shutdown();
+        try {
+            // Rows still SENDING after this are retried once their lease runs out
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Token bucket per recipient domain, refilled continuously. A bucket left alone for
+    // a minute is full again, so idle domains are dropped after two and recreated full.
+    static final class DomainRateLimiter {
+        private static final Duration IDLE_EXPIRY = Duration.ofMinutes(2);
+        private static final int MAX_DOMAINS = 10_000;
+
+        private final double perMs;
+        private final double burst;
+        private final Cache<String, double[]> buckets = Caffeine.newBuilder()
+                .expireAfterAccess(IDLE_EXPIRY)
+                .maximumSize(MAX_DOMAINS)
+                .build();
+
+        DomainRateLimiter(int perMinute) {
+            this.perMs = perMinute / 60000.0;
+            this.burst = perMinute;
+        }
+
+        // 0 if a message may go now, otherwise milliseconds until one may
+        long tryAcquire(String domain) {
+            long now = System.currentTimeMillis();
+            // { tokens, last refill time }
+            double[] bucket = buckets.get(domain, d -> new double[] { burst, now });
+            synchronized (bucket) {
+                bucket[0] = Math.min(burst, bucket[0] + (now - bucket[1]) * perMs);
+                bucket[1] = now;
+                if (bucket[0] >= 1) {
+                    bucket[0] -= 1;
+                    return 0;
+                }
+                return (long) Math.ceil((1 - bucket[0]) / perMs);
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
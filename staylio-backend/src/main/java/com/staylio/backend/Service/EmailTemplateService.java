@@ -0,0 +1,243 @@
+package com.staylio.backend.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Email bodies live in classpath:email-templates/<name>.html and are compiled once at
+// startup into literal chunks and parameter slots. Supported syntax:
+//   {{name}}                  value, HTML-escaped in the html part
+//   {{#name}} ... {{/name}}   included when name is set (non-null, non-empty, not false)
+//   {{^name}} ... {{/name}}   included when name is not set
+// The text/plain part comes from <name>.txt if present, otherwise it is derived from
+// the HTML template when it is compiled.
+@Service
+public class EmailTemplateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplateService.class);
+
+    private static final String LOCATION = "classpath*:email-templates/";
+    // Buffers that grew past this are not kept for reuse
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final Pattern HEAD = Pattern.compile("(?is)<head>.*?</head>");
+    private static final Pattern LINK = Pattern.compile("(?is)<a\\s[^>]*href=\"(https?://[^\"]*)\"[^>]*>(.*?)</a>");
+    private static final Pattern LINE_BREAK = Pattern.compile("(?i)<br\\s*/?>|<hr[^>]*>|</(p|h[1-6]|div|tr|li|ul|table)>");
+    private static final Pattern CELL_END = Pattern.compile("(?i)</td>");
+    private static final Pattern TAG = Pattern.compile("<[^>]+>");
+
+    private final Map<String, EmailTemplate> templates = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(8 * 1024));
+
+    @PostConstruct
+    public void compileAll() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Map<String, String> textSources = new HashMap<>();
+        for (Resource resource : resolver.getResources(LOCATION + "*.txt")) {
+            textSources.put(baseName(resource), resource.getContentAsString(StandardCharsets.UTF_8));
+        }
+        for (Resource resource : resolver.getResources(LOCATION + "*.html")) {
+            String name = baseName(resource);
+            String html = resource.getContentAsString(StandardCharsets.UTF_8);
+            String text = textSources.getOrDefault(name, htmlToText(html));
+            try {
+                templates.put(name, new EmailTemplate(compile(html, true), compile(text, false)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid email template " + name + ": " + e.getMessage(), e);
+            }
+        }
+        logger.info("Compiled {} email templates", templates.size());
+    }
+
+    public RenderedEmail render(String name, Map<String, ?> params) {
+        EmailTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown email template: " + name);
+        }
+        return new RenderedEmail(renderNodes(template.html, params), renderNodes(template.text, params));
+    }
+
+    private String renderNodes(Node[] nodes, Map<String, ?> params) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        try {
+            for (Node node : nodes) {
+                node.render(buffer, params);
+            }
+            return buffer.toString();
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                buffers.remove();
+            }
+        }
+    }
+
+    // Parses the template source into nodes; sections nest
+    private static Node[] compile(String source, boolean escapeHtml) {
+        List<List<Node>> stack = new ArrayList<>();
+        List<String> openSections = new ArrayList<>();
+        List<Boolean> inverted = new ArrayList<>();
+        stack.add(new ArrayList<>());
+
+        int pos = 0;
+        while (pos < source.length()) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed tag at offset " + open);
+            }
+            if (open > pos) {
+                stack.get(stack.size() - 1).add(new Literal(source.substring(pos, open)));
+            }
+            String tag = source.substring(open + 2, close).trim();
+            char kind = tag.isEmpty() ? ' ' : tag.charAt(0);
+            if (kind == '#' || kind == '^') {
+                openSections.add(tag.substring(1).trim());
+                inverted.add(kind == '^');
+                stack.add(new ArrayList<>());
+            } else if (kind == '/') {
+                String key = tag.substring(1).trim();
+                int depth = openSections.size() - 1;
+                if (depth < 0 || !openSections.get(depth).equals(key)) {
+                    throw new IllegalArgumentException("Unexpected {{/" + key + "}}");
+                }
+                Node[] body = stack.remove(stack.size() - 1).toArray(new Node[0]);
+                stack.get(stack.size() - 1).add(new Section(key, inverted.remove(depth), body));
+                openSections.remove(depth);
+            } else if (tag.isEmpty()) {
+                throw new IllegalArgumentException("Empty tag at offset " + open);
+            } else {
+                stack.get(stack.size() - 1).add(new Variable(tag, escapeHtml));
+            }
+            pos = close + 2;
+        }
+        if (!openSections.isEmpty()) {
+            throw new IllegalArgumentException("Unclosed section {{#" + openSections.get(openSections.size() - 1) + "}}");
+        }
+        if (pos < source.length()) {
+            stack.get(0).add(new Literal(source.substring(pos)));
+        }
+        return stack.get(0).toArray(new Node[0]);
+    }
+
+    // Rough plain-text rendering of an HTML template; placeholders pass through untouched
+    private static String htmlToText(String html) {
+        String text = HEAD.matcher(html).replaceAll("");
+        text = LINK.matcher(text).replaceAll("$2 ($1)");
+        text = LINE_BREAK.matcher(text).replaceAll("\n");
+        text = CELL_END.matcher(text).replaceAll(" ");
+        text = TAG.matcher(text).replaceAll("");
+        text = text.replace("&copy;", "(c)").replace("&nbsp;", " ").replace("&lt;", "<")
+                .replace("&gt;", ">").replace("&quot;", "\"").replace("&amp;", "&");
+
+        StringBuilder out = new StringBuilder(text.length());
+        for (String line : text.split("\n")) {
+            String trimmed = line.strip().replaceAll("\\s{2,}", " ");
+            if (!trimmed.isEmpty()) {
+                out.append(trimmed).append('\n');
+            }
+        }
+        return out.toString().strip() + "\n";
+    }
+
+    private static String baseName(Resource resource) {
+        String filename = resource.getFilename();
+        return filename.substring(0, filename.lastIndexOf('.'));
+    }
+
+    private static boolean isSet(Object value) {
+        if (value == null || Boolean.FALSE.equals(value)) {
+            return false;
+        }
+        return !(value instanceof CharSequence chars) || chars.length() > 0;
+    }
+
+    private static void appendEscaped(StringBuilder out, CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private record EmailTemplate(Node[] html, Node[] text) {
+    }
+
+    private interface Node {
+        void render(StringBuilder out, Map<String, ?> params);
+    }
+
+    private record Literal(String text) implements Node {
+        @Override
+        public void render(StringBuilder out, Map<String, ?> params) {
+            out.append(text);
+        }
+    }
+
+    private record Variable(String key, boolean escapeHtml) implements Node {
+        @Override
+        public void render(StringBuilder out, Map<String, ?> params) {
+            Object value = params.get(key);
+            if (value == null) {
+                return;
+            }
+            CharSequence chars = value instanceof CharSequence cs ? cs : String.valueOf(value);
+            if (escapeHtml) {
+                appendEscaped(out, chars);
+            } else {
+                out.append(chars);
+            }
+        }
+    }
+
+    private record Section(String key, boolean inverted, Node[] body) implements Node {
+        @Override
+        public void render(StringBuilder out, Map<String, ?> params) {
+            if (isSet(params.get(key)) != inverted) {
+                for (Node node : body) {
+                    node.render(out, params);
+                }
+            }
+        }
+    }
+
+    public static final class RenderedEmail {
+        private final String html;
+        private final String text;
+
+        RenderedEmail(String html, String text) {
+            this.html = html;
+            this.text = text;
+        }
+
+        public String getHtml() {
+            return html;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+}
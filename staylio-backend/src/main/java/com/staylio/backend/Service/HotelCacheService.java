@@ -0,0 +1,35 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.model.Hotel;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Second-level cache upkeep for hotels. Hibernate refreshes cached entities on its own
+// writes, but is_claimed and the cover image are computed by the database, so the state
+// it caches after an insert or an owner change is out of date until the entry is dropped.
+@Service
+public class HotelCacheService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Drop the hotel from the cache once the current transaction has committed
+    public void evictHotel(Long hotelId) {
+        if (hotelId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entityManagerFactory.getCache().evict(Hotel.class, hotelId);
+                }
+            });
+        } else {
+            entityManagerFactory.getCache().evict(Hotel.class, hotelId);
+        }
+    }
+}
@@ -21,6 +21,12 @@ public class HotelClaimService {
     
     @Autowired
     private HotelRepository hotelRepository;
+
+    @Autowired
+    private HotelCacheService hotelCacheService;
+
+    @Autowired
+    private LandingPageService landingPageService;
     
     // Submit a new hotel claim
     @Transactional
@@ -125,6 +131,8 @@ public class HotelClaimService {
         // Assign hotel to host
         hotel.setHotelOwnerId(claim.getHostId());
         hotelRepository.save(hotel);
+        hotelCacheService.evictHotel(hotel.getId());
+        landingPageService.invalidate();
         
         return claim;
     }
@@ -159,6 +167,10 @@ public class HotelClaimService {
         for (Hotel hotel : ownedHotels) {
             hotel.setHotelOwnerId(null);
             hotelRepository.save(hotel);
+            hotelCacheService.evictHotel(hotel.getId());
+        }
+        if (!ownedHotels.isEmpty()) {
+            landingPageService.invalidate();
         }
     }
 }
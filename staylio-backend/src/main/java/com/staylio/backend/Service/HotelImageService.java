@@ -1,33 +1,210 @@
 package com.staylio.backend.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.staylio.backend.Repo.HotelImageRepository;
-import com.staylio.backend.model.HotelImages;
-import com.staylio.backend.Service.HotelImageServiceInterface;
+import com.staylio.backend.model.HotelImage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+// Hotel photos from the hotel_image table. Each hotel's URL list is cached in process,
+// and the hotels missing from the cache are loaded together with one query, so a
+// page of hotel cards costs at most one round trip. Hotels with no rows yet (e.g.
+// imported by fetch_hotels.py after startup) are read from the legacy columns and
+// copied into hotel_image on that first read.
 @Service
 public class HotelImageService implements HotelImageServiceInterface {
 
+    public static final int MAX_BATCH_SIZE = 100;
+    private static final int BACKFILL_PAGE_SIZE = 500;
+    // Upper bound on staleness for photo changes made by other instances
+    private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+    // A hotel's photo list before hotel_image: its hotels_image row, else all_photo_urls
+    private static final String LEGACY_PHOTOS = "COALESCE(NULLIF(TRIM(i.photos_urls), ''), h.all_photo_urls)";
+
     @Autowired
     private HotelImageRepository repository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Cache<Long, List<String>> urlsByHotel = Caffeine.newBuilder()
+            .expireAfterWrite(CACHE_TTL)
+            .maximumSize(10_000)
+            .build();
+
     @Override
     public List<String> getHotelImages(Long hotelId) {
+        return getHotelImages(List.of(hotelId)).get(hotelId);
+    }
 
-        HotelImages img = repository.findByHotelId(hotelId);
+    @Override
+    public Map<Long, List<String>> getHotelImages(Collection<Long> hotelIds) {
+        Set<Long> ids = new LinkedHashSet<>(hotelIds);
+        Map<Long, List<String>> cached = new HashMap<>(urlsByHotel.getAllPresent(ids));
+        Map<Long, List<String>> result = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (!cached.containsKey(id)) {
+                missing.add(id);
+            }
+        }
 
-        if (img == null || img.getPhotosUrls() == null || img.getPhotosUrls().isBlank()) {
-            return Collections.emptyList();
+        if (!missing.isEmpty()) {
+            Map<Long, List<String>> loaded = new HashMap<>();
+            for (HotelImage image : repository.findByHotelIdInOrderByHotelIdAscPositionAsc(missing)) {
+                loaded.computeIfAbsent(image.getHotelId(), id -> new ArrayList<>()).add(image.getUrl());
+            }
+            List<Long> unfilled = missing.stream().filter(id -> !loaded.containsKey(id)).toList();
+            if (!unfilled.isEmpty()) {
+                loaded.putAll(copyLegacyPhotos(unfilled));
+            }
+            for (Long id : missing) {
+                // Hotels without photos are cached too, as an empty list
+                List<String> urls = List.copyOf(loaded.getOrDefault(id, Collections.emptyList()));
+                urlsByHotel.put(id, urls);
+                cached.put(id, urls);
+            }
+        }
+        for (Long id : ids) {
+            result.put(id, cached.get(id));
         }
+        return result;
+    }
+
+    // Replace a hotel's photos with the given comma-separated list, in its order.
+    // Must run in the caller's transaction.
+    public void replaceImages(Long hotelId, String photoUrls) {
+        repository.deleteByHotelId(hotelId);
+        List<String> urls = parseUrls(photoUrls);
+        List<HotelImage> images = new ArrayList<>(urls.size());
+        for (int position = 0; position < urls.size(); position++) {
+            images.add(new HotelImage(hotelId, position, urls.get(position)));
+        }
+        repository.saveAll(images);
+        evictAfterCommit(hotelId);
+    }
 
-        return Arrays.stream(img.getPhotosUrls().split(","))
+    public void deleteImages(Long hotelId) {
+        repository.deleteByHotelId(hotelId);
+        evictAfterCommit(hotelId);
+    }
+
+    // Carry photo lists kept before hotel_image existed into it: the hotels_image row
+    // when it has one, otherwise the hotel's all_photo_urls. Hotels that already have
+    // photos are skipped, so reruns only pick up hotels imported since. Returns the
+    // number of hotels filled in. Hotels added later are filled in on first read.
+    public int backfill() {
+        int hotels = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> page = jdbcTemplate.query(
+                    "SELECT h.id, " + LEGACY_PHOTOS + " FROM hotels h " +
+                            "LEFT JOIN hotels_image i ON i.hotel_id = h.id " +
+                            "WHERE h.id > ? AND NOT EXISTS (SELECT 1 FROM hotel_image hi WHERE hi.hotel_id = h.id) " +
+                            "ORDER BY h.id LIMIT ?",
+                    (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getString(2) },
+                    afterId, BACKFILL_PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            afterId = (Long) page.get(page.size() - 1)[0];
+
+            hotels += insertLegacyPhotos(page).size();
+            if (page.size() < BACKFILL_PAGE_SIZE) {
+                break;
+            }
+        }
+        return hotels;
+    }
+
+    // Fill url_hash of rows written before the column existed. Returns the number of rows.
+    public int backfillUrlHashes() {
+        int rows = 0;
+        while (true) {
+            List<Object[]> page = jdbcTemplate.query(
+                    "SELECT id, url FROM hotel_image WHERE url_hash IS NULL ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Object[] { HotelImage.hashOf(rs.getString(2)), rs.getLong(1) },
+                    BACKFILL_PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate("UPDATE hotel_image SET url_hash = ? WHERE id = ?", page);
+            rows += page.size();
+            if (page.size() < BACKFILL_PAGE_SIZE) {
+                break;
+            }
+        }
+        return rows;
+    }
+
+    // Legacy photo lists of the given hotels, copied into hotel_image
+    private Map<Long, List<String>> copyLegacyPhotos(List<Long> hotelIds) {
+        String placeholders = String.join(", ", Collections.nCopies(hotelIds.size(), "?"));
+        List<Object[]> hotels = jdbcTemplate.query(
+                "SELECT h.id, " + LEGACY_PHOTOS + " FROM hotels h LEFT JOIN hotels_image i ON i.hotel_id = h.id " +
+                        "WHERE h.id IN (" + placeholders + ")",
+                (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getString(2) },
+                hotelIds.toArray());
+        return insertLegacyPhotos(hotels);
+    }
+
+    // Write (hotel id, comma-separated list) pairs into hotel_image and return the parsed
+    // lists of the hotels that had photos
+    private Map<Long, List<String>> insertLegacyPhotos(List<Object[]> hotels) {
+        Map<Long, List<String>> photos = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Object[] hotel : hotels) {
+            List<String> urls = parseUrls((String) hotel[1]);
+            for (int position = 0; position < urls.size(); position++) {
+                rows.add(new Object[] { hotel[0], position, urls.get(position), HotelImage.hashOf(urls.get(position)) });
+            }
+            if (!urls.isEmpty()) {
+                photos.put((Long) hotel[0], urls);
+            }
+        }
+        // INSERT IGNORE: another instance may be filling in the same hotels
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO hotel_image (hotel_id, position, url, url_hash) VALUES (?, ?, ?, ?)", rows);
+        }
+        return photos;
+    }
+
+    private static List<String> parseUrls(String photoUrls) {
+        if (photoUrls == null || photoUrls.isBlank()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(photoUrls.split(","))
                 .map(String::trim)
                 .filter(url -> !url.isEmpty())
                 .toList();
     }
+
+    private void evictAfterCommit(Long hotelId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    urlsByHotel.invalidate(hotelId);
+                }
+            });
+        } else {
+            urlsByHotel.invalidate(hotelId);
+        }
+    }
 }
@@ -1,7 +1,12 @@
 package com.staylio.backend.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface HotelImageServiceInterface {
     List<String> getHotelImages(Long hotelId);
+
+    // Photo URLs of each requested hotel, in request order; hotels without photos map to an empty list
+    Map<Long, List<String>> getHotelImages(Collection<Long> hotelIds);
 }
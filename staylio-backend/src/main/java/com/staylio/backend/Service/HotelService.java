@@ -1,28 +1,70 @@
 package com.staylio.backend.Service;
 
 import com.staylio.backend.Repo.HotelRepository;
+import com.staylio.backend.dto.HotelCursor;
+import com.staylio.backend.dto.HotelSummaryDTO;
+import com.staylio.backend.dto.HotelSummaryProjection;
 import com.staylio.backend.model.Hotel;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class HotelService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final double MAX_NEARBY_RADIUS_KM = 500;
+    private static final double KM_PER_DEGREE = 111.045;
+
+    // innodb_ft_min_token_size and the default InnoDB stopword list
+    private static final int FULL_TEXT_MIN_TOKEN_SIZE = 3;
+    private static final Set<String> FULL_TEXT_STOPWORDS = Set.of("a", "about", "an", "are", "as", "at", "be",
+            "by", "com", "de", "en", "for", "from", "how", "i", "in", "is", "it", "la", "of", "on", "or", "that",
+            "the", "this", "to", "was", "what", "when", "where", "who", "will", "with", "und", "www");
+
     @Autowired
     private HotelRepository hotelRepository;
 
+    @Autowired
+    private HotelSuggestService hotelSuggestService;
+
+    @Autowired
+    private HotelCacheService hotelCacheService;
+
+    @Autowired
+    private LandingPageService landingPageService;
+
+    @Autowired
+    private HotelImageService hotelImageService;
+
     // Create hotel
     public Hotel createHotel(Hotel hotel) {
         if (hotel.getId() == null) {
             hotel.setId(generateUniqueId());
         }
-        return hotelRepository.save(hotel);
+        hotelSuggestService.markStale();
+        Hotel saved = hotelRepository.save(hotel);
+        hotelImageService.replaceImages(saved.getId(), saved.getAllPhotoUrls());
+        hotelCacheService.evictHotel(saved.getId());
+        landingPageService.invalidate();
+        return saved;
     }
 
     private Long generateUniqueId() {
@@ -39,9 +81,9 @@ public class HotelService {
         return hotelRepository.findAllSortedByClaimStatus();
     }
 
-    // Get landing page hotels
-    public List<Hotel> getLandingPageHotels() {
-        return hotelRepository.findTop15ByHotelOwnerIdIsNotNullAndIsActiveTrueOrderByRatingDesc();
+    // Get all hotels, one keyset page at a time (claimed first, then by rating)
+    public Window<HotelSummaryProjection> getAllHotels(String cursor, int size) {
+        return hotelRepository.findBy(HotelCursor.decode(cursor), HotelCursor.SORT, pageLimit(size));
     }
 
     // Get hotel by ID
@@ -79,6 +121,8 @@ public class HotelService {
         hotel.setIsActive(hotelDetails.getIsActive());
         hotel.setIsFeatured(hotelDetails.getIsFeatured());
 
+        hotelSuggestService.markStale();
+        landingPageService.invalidate();
         return hotelRepository.save(hotel);
     }
 
@@ -87,79 +131,199 @@ public class HotelService {
         Hotel hotel = hotelRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Hotel not found with id: " + id));
         hotelRepository.delete(hotel);
+        hotelImageService.deleteImages(id);
+        hotelSuggestService.markStale();
+        landingPageService.invalidate();
     }
 
     // Get hotels by host
-    public List<Hotel> getHotelsByHost(Long hostId) {
-        return hotelRepository.findByHostId(hostId);
+    public Window<HotelSummaryProjection> getHotelsByHost(Long hostId, String cursor, int size) {
+        return hotelRepository.findByHostId(hostId, HotelCursor.decode(cursor), HotelCursor.SORT, pageLimit(size));
     }
 
     // Get hotels by owner
-    public List<Hotel> getHotelsByOwner(Long ownerId) {
-        return hotelRepository.findByHotelOwnerId(ownerId);
+    public Window<HotelSummaryProjection> getHotelsByOwner(Long ownerId, String cursor, int size) {
+        return hotelRepository.findByHotelOwnerId(ownerId, HotelCursor.decode(cursor), HotelCursor.SORT,
+                pageLimit(size));
     }
 
     // Get active hotels
-    public List<Hotel> getActiveHotels() {
-        return hotelRepository.findByIsActiveTrue();
+    public Window<HotelSummaryProjection> getActiveHotels(String cursor, int size) {
+        return hotelRepository.findByIsActiveTrue(HotelCursor.decode(cursor), HotelCursor.SORT, pageLimit(size));
     }
 
     // Get featured hotels
-    public List<Hotel> getFeaturedHotels() {
-        return hotelRepository.findByIsFeaturedTrue();
+    public Window<HotelSummaryProjection> getFeaturedHotels(String cursor, int size) {
+        return hotelRepository.findByIsFeaturedTrue(HotelCursor.decode(cursor), HotelCursor.SORT, pageLimit(size));
     }
 
     // Get hotels by city
-    public List<Hotel> getHotelsByCity(String city) {
-        return hotelRepository.findByCityIgnoreCaseAndIsActiveTrue(city);
+    public Window<HotelSummaryProjection> getHotelsByCity(String city, String cursor, int size) {
+        return hotelRepository.findByCityIgnoreCaseAndIsActiveTrue(city, HotelCursor.decode(cursor),
+                HotelCursor.SORT, pageLimit(size));
     }
 
     // Get hotels by state
-    public List<Hotel> getHotelsByState(String state) {
-        return hotelRepository.findByStateIgnoreCase(state);
+    public Window<HotelSummaryProjection> getHotelsByState(String state, String cursor, int size) {
+        return hotelRepository.findByStateIgnoreCase(state, HotelCursor.decode(cursor), HotelCursor.SORT,
+                pageLimit(size));
     }
 
     // Get hotels by country
-    public List<Hotel> getHotelsByCountry(String country) {
-        return hotelRepository.findByCountryIgnoreCase(country);
+    public Window<HotelSummaryProjection> getHotelsByCountry(String country, String cursor, int size) {
+        return hotelRepository.findByCountryIgnoreCase(country, HotelCursor.decode(cursor), HotelCursor.SORT,
+                pageLimit(size));
     }
 
     // Get hotels by price range
-    public List<Hotel> getHotelsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return hotelRepository.findByPriceRange(minPrice, maxPrice);
+    public Window<HotelSummaryProjection> getHotelsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String cursor, int size) {
+        return hotelRepository.findByPricePerNightBetweenAndIsActiveTrue(minPrice, maxPrice,
+                HotelCursor.decode(cursor), HotelCursor.SORT, pageLimit(size));
     }
 
     // Get hotels by minimum rating
-    public List<Hotel> getHotelsByMinimumRating(Double minRating) {
-        return hotelRepository.findByMinimumRating(minRating);
+    public Window<HotelSummaryProjection> getHotelsByMinimumRating(Double minRating, String cursor, int size) {
+        return hotelRepository.findByRatingGreaterThanEqualAndIsActiveTrue(minRating, HotelCursor.decode(cursor),
+                HotelCursor.SORT, pageLimit(size));
     }
 
     // Get hotels by guest capacity
-    public List<Hotel> getHotelsByGuestCapacity(Integer guests) {
-        return hotelRepository.findByGuestCapacity(guests);
+    public Window<HotelSummaryProjection> getHotelsByGuestCapacity(Integer guests, String cursor, int size) {
+        return hotelRepository.findByMaxGuestsGreaterThanEqualAndIsActiveTrue(guests, HotelCursor.decode(cursor),
+                HotelCursor.SORT, pageLimit(size));
     }
 
-    // Search hotels
-    public List<Hotel> searchHotels(String keyword) {
-        return hotelRepository.searchHotels(keyword);
+    // Full-text search over name, city, state, description and amenities, ranked by
+    // relevance. Keywords made only of stopwords or very short words cannot use the
+    // index and fall back to a substring match on name and city. The cursor is the
+    // next page number.
+    public Slice<HotelSummaryDTO> searchHotels(String keyword, String cursor, int size) {
+        if (keyword == null || keyword.isBlank()) {
+            throw new IllegalArgumentException("Keyword is required");
+        }
+        PageRequest pageable = PageRequest.of(pageNumber(cursor), pageLimit(size).max());
+        String query = toFullTextQuery(keyword);
+        Slice<HotelSummaryProjection> hotels = query != null
+                ? hotelRepository.searchHotels(query, pageable)
+                : hotelRepository.searchHotelsByNameOrCity(keyword.trim(), pageable);
+        return hotels.map(HotelSummaryDTO::fromProjection);
+    }
+
+    // Search hotels available for claiming by name or place. Numbers are matched
+    // against hotel ids (partial ids too), as are keywords full-text search cannot use.
+    public List<Hotel> searchUnclaimedHotels(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        String trimmed = keyword.trim();
+        String query = toFullTextQuery(trimmed);
+        if (query == null || trimmed.matches("\\d+")) {
+            return hotelRepository.searchUnclaimedHotelsByText(trimmed);
+        }
+        List<Long> ids = hotelRepository.searchUnclaimedHotelIds(query);
+        Map<Long, Hotel> hotels = hotelRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Hotel::getId, Function.identity()));
+        // Back into relevance order
+        return ids.stream().map(hotels::get).filter(Objects::nonNull).toList();
     }
 
     // Get hotels with available rooms
-    public List<Hotel> getHotelsWithAvailableRooms() {
-        return hotelRepository.findHotelsWithAvailableRooms();
+    public Window<HotelSummaryProjection> getHotelsWithAvailableRooms(String cursor, int size) {
+        return hotelRepository.findByAvailableRoomsGreaterThanAndIsActiveTrue(0, HotelCursor.decode(cursor),
+                HotelCursor.SORT, pageLimit(size));
     }
 
-    // Get nearby hotels
-    public List<Hotel> getNearbyHotels(Double latitude, Double longitude, Double radius) {
-        return hotelRepository.findNearbyHotels(latitude, longitude, radius);
+    // Get nearby hotels, closest first; the cursor is the next page number
+    public Slice<HotelSummaryDTO> getNearbyHotels(Double latitude, Double longitude, Double radius, String cursor, int size) {
+        if (latitude == null || longitude == null || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            throw new IllegalArgumentException("Invalid coordinates");
+        }
+        if (radius == null || radius <= 0 || radius > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("Radius must be between 0 and " + MAX_NEARBY_RADIUS_KM + " km");
+        }
+
+        // Bounding box around the point; widen to all longitudes near the poles or
+        // when the box would cross the antimeridian
+        double latDelta = radius / KM_PER_DEGREE;
+        double minLat = Math.max(-90, latitude - latDelta);
+        double maxLat = Math.min(90, latitude + latDelta);
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double minLon = -180;
+        double maxLon = 180;
+        if (cosLat > 0.01) {
+            double lonDelta = radius / (KM_PER_DEGREE * cosLat);
+            if (longitude - lonDelta >= -180 && longitude + lonDelta <= 180) {
+                minLon = longitude - lonDelta;
+                maxLon = longitude + lonDelta;
+            }
+        }
+
+        return hotelRepository.findNearbyHotels(latitude, longitude, radius, minLat, maxLat, minLon, maxLon,
+                PageRequest.of(pageNumber(cursor), pageLimit(size).max()));
     }
 
-    // Update hotel rating
-    public Hotel updateHotelRating(Long id, Double rating, Integer reviewCount) {
-        Hotel hotel = hotelRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Hotel not found with id: " + id));
-        hotel.setRating(rating);
-        hotel.setReviewCount(reviewCount);
-        return hotelRepository.save(hotel);
+    // Search active hotels that have rooms free for the whole stay
+    public Page<HotelSummaryDTO> searchAvailableHotels(String city, BigDecimal minPrice, BigDecimal maxPrice, Double minRating,
+            Integer guests, LocalDate checkIn, LocalDate checkOut, Integer rooms, int page, int size, String sort) {
+        if (checkIn == null || checkOut == null || checkIn.isAfter(checkOut)) {
+            throw new IllegalArgumentException("Check-in date must be before check-out date");
+        }
+        // A same-day stay still occupies the check-in night
+        LocalDate endDate = checkOut.isAfter(checkIn) ? checkOut : checkIn.plusDays(1);
+        int requestedRooms = rooms != null && rooms > 0 ? rooms : 1;
+        String normalizedCity = city != null && !city.isBlank() ? city.trim() : null;
+
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                resolveSearchSort(sort));
+        return hotelRepository.searchAvailableHotels(normalizedCity, minPrice, maxPrice, minRating, guests,
+                checkIn, endDate, requestedRooms, pageable);
+    }
+
+    // Turn free text into a boolean-mode query: operators are stripped, every word is
+    // required and matched as a prefix so partially typed words still hit. Words the
+    // index never holds (InnoDB stopwords, words under the minimum token size) are
+    // dropped, since requiring them would match nothing. Returns null if none are left.
+    private String toFullTextQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        for (String word : keyword.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= FULL_TEXT_MIN_TOKEN_SIZE && !FULL_TEXT_STOPWORDS.contains(word)) {
+                query.append(query.length() > 0 ? " " : "").append('+').append(word).append('*');
+            }
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+
+    // Offset-paged lists pass the page number as their cursor
+    private int pageNumber(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(Integer.parseInt(cursor), 0);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private Limit pageLimit(int size) {
+        return Limit.of(Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    private Sort resolveSearchSort(String sort) {
+        Sort order;
+        if ("price".equalsIgnoreCase(sort)) {
+            order = Sort.by(Sort.Direction.ASC, "pricePerNight");
+        } else if ("price_desc".equalsIgnoreCase(sort)) {
+            order = Sort.by(Sort.Direction.DESC, "pricePerNight");
+        } else if ("reviews".equalsIgnoreCase(sort)) {
+            order = Sort.by(Sort.Direction.DESC, "reviewCount");
+        } else {
+            order = Sort.by(Sort.Direction.DESC, "rating");
+        }
+        // Stable order across pages
+        return order.and(Sort.by(Sort.Direction.ASC, "id"));
     }
 }
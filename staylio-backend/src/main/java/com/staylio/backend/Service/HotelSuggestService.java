@@ -0,0 +1,227 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.HotelRepository;
+import com.staylio.backend.dto.HotelSuggestionDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Typeahead over hotel names, cities and states. Suggestions come from an in-memory
+// prefix trie in which every node keeps its own top entries, so a lookup only walks
+// the typed prefix. Only the first MAX_INDEXED_DEPTH characters after a word start
+// are indexed; the nodes at that depth keep every entry passing through them, and
+// longer prefixes are answered by filtering those. Hotel writes mark the trie stale and it is rebuilt in the
+// background; readers keep using the previous trie until the new one is swapped in.
+@Service
+public class HotelSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelSuggestService.class);
+
+    public static final int MAX_SUGGESTIONS = 10;
+    private static final long MAX_TRIE_AGE_MS = 10 * 60 * 1000;
+    // Few names share this many leading characters, so the deepest nodes stay short
+    private static final int MAX_INDEXED_DEPTH = 16;
+
+    private static final Comparator<HotelSuggestionDTO> BY_POPULARITY = Comparator
+            .comparingInt(HotelSuggestionDTO::getPopularity).reversed()
+            .thenComparing(HotelSuggestionDTO::getText);
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    private volatile TrieNode root = new TrieNode();
+    private volatile long builtAt;
+    private volatile boolean stale = true;
+
+    // Top suggestions for a prefix of any word in a hotel, city or state name
+    public List<HotelSuggestionDTO> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        TrieNode node = root;
+        for (int i = 0; i < Math.min(prefix.length(), MAX_INDEXED_DEPTH) && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<HotelSuggestionDTO> matches = node.top;
+        if (prefix.length() > MAX_INDEXED_DEPTH) {
+            matches = matches.stream()
+                    .filter(entry -> (" " + normalize(entry.getText())).contains(" " + prefix))
+                    .toList();
+        }
+        int count = Math.min(Math.max(limit, 1), matches.size());
+        return List.copyOf(matches.subList(0, count));
+    }
+
+    // Called when a hotel is created, updated or deleted; takes effect once the
+    // surrounding transaction commits so a rebuild cannot miss the change
+    public void markStale() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stale = true;
+                }
+            });
+        } else {
+            stale = true;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    // Rebuild shortly after hotel writes, and periodically to pick up review counts
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000)
+    public void refreshIfStale() {
+        if (stale || System.currentTimeMillis() - builtAt > MAX_TRIE_AGE_MS) {
+            rebuild();
+        }
+    }
+
+    public synchronized void rebuild() {
+        stale = false;
+        try {
+            Map<String, HotelSuggestionDTO> cities = new LinkedHashMap<>();
+            Map<String, HotelSuggestionDTO> states = new LinkedHashMap<>();
+            List<HotelSuggestionDTO> entries = new ArrayList<>();
+
+            for (Object[] row : hotelRepository.findSuggestionSources()) {
+                Long id = (Long) row[0];
+                String name = (String) row[1];
+                String city = (String) row[2];
+                String state = (String) row[3];
+                int reviews = row[4] != null ? ((Number) row[4]).intValue() : 0;
+
+                if (name != null && !name.isBlank()) {
+                    entries.add(new HotelSuggestionDTO(name.trim(), "HOTEL", id, city, reviews));
+                }
+                // Places rank by how many hotels and reviews they have
+                addPlace(cities, city, "CITY", state, reviews);
+                addPlace(states, state, "STATE", null, reviews);
+            }
+            entries.addAll(cities.values());
+            entries.addAll(states.values());
+
+            TrieNode newRoot = new TrieNode();
+            for (HotelSuggestionDTO entry : entries) {
+                insert(newRoot, entry);
+            }
+            root = newRoot;
+            builtAt = System.currentTimeMillis();
+            logger.debug("Suggestion trie rebuilt with {} entries", entries.size());
+        } catch (Exception e) {
+            // Keep serving the previous trie and retry on the next run
+            stale = true;
+            logger.warn("Could not rebuild suggestion trie: {}", e.getMessage());
+        }
+    }
+
+    private void addPlace(Map<String, HotelSuggestionDTO> places, String place, String type, String location,
+            int reviews) {
+        if (place == null || place.isBlank()) {
+            return;
+        }
+        HotelSuggestionDTO entry = places.computeIfAbsent(normalize(place),
+                key -> new HotelSuggestionDTO(place.trim(), type, null, location, 0));
+        entry.setPopularity(entry.getPopularity() + 1 + reviews);
+    }
+
+    // Index the entry under the start of every word so "hyatt" finds "Grand Hyatt"
+    private void insert(TrieNode root, HotelSuggestionDTO entry) {
+        String key = normalize(entry.getText());
+        for (int start = 0; start < key.length(); start++) {
+            if (start > 0 && key.charAt(start - 1) != ' ') {
+                continue;
+            }
+            TrieNode node = root;
+            int end = Math.min(key.length(), start + MAX_INDEXED_DEPTH);
+            for (int i = start; i < end; i++) {
+                node = node.getOrAddChild(key.charAt(i));
+                // The deepest nodes keep every entry, for the lookups they filter
+                node.offer(entry, i - start + 1 == MAX_INDEXED_DEPTH ? Integer.MAX_VALUE : MAX_SUGGESTIONS);
+            }
+        }
+    }
+
+    // Lower case, accents and punctuation removed, single spaces
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    // Children are kept as parallel arrays sorted by character rather than a map per
+    // node; most nodes have one or two children
+    private static class TrieNode {
+        private static final char[] NO_KEYS = new char[0];
+        private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+        private char[] keys = NO_KEYS;
+        private TrieNode[] children = NO_CHILDREN;
+        private final List<HotelSuggestionDTO> top = new ArrayList<>(1);
+
+        private TrieNode child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private TrieNode getOrAddChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            TrieNode[] newChildren = new TrieNode[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            TrieNode child = new TrieNode();
+            newKeys[insertAt] = c;
+            newChildren[insertAt] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        // Keep the best `capacity` entries passing through this node, best first
+        private void offer(HotelSuggestionDTO entry, int capacity) {
+            if (top.contains(entry)) {
+                return;
+            }
+            int index = 0;
+            while (index < top.size() && BY_POPULARITY.compare(top.get(index), entry) <= 0) {
+                index++;
+            }
+            if (index < capacity) {
+                top.add(index, entry);
+                if (top.size() > capacity) {
+                    top.remove(top.size() - 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.staylio.backend.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.staylio.backend.model.HotelImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Resized JPEG copies of hotel photos at the widths in ImageVariants.WIDTHS. The first
+// request for a photo downloads the original once and writes every width to the
+// variant store; later requests are plain file reads. Photos narrower than a width
+// are stored at their own size rather than upscaled. Originals are only fetched from
+// the allowed hosts (see ImageVariants), and their pixel size is checked from the
+// header before anything is decoded.
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final int MAX_ORIGINAL_BYTES = 20 * 1024 * 1024;
+    // A decoded pixel takes 4 bytes, so this caps one decode at about 100 MB of heap
+    private static final long MAX_ORIGINAL_PIXELS = 25_000_000L;
+    private static final float JPEG_QUALITY = 0.8f;
+    // Originals that could not be fetched or decoded are not retried for this long
+    private static final Duration FAILURE_TTL = Duration.ofMinutes(5);
+
+    @Autowired
+    private ImageVariantStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ImageVariants imageVariants;
+
+    @Autowired
+    @Qualifier("imageHttpClient")
+    private HttpClient httpClient;
+
+    // One generation per photo at a time; concurrent requests wait for it
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private final Cache<String, String> failures = Caffeine.newBuilder()
+            .expireAfterWrite(FAILURE_TTL)
+            .maximumSize(10_000)
+            .build();
+
+    // The variant of the photo behind a token. Throws IllegalArgumentException for an
+    // unknown token or width, IllegalStateException when the original is unusable.
+    public Variant getVariant(String token, int width) throws IOException {
+        String url = imageVariants.verify(token);
+        if (url == null || !isVariantWidth(width)) {
+            throw new IllegalArgumentException("Unknown image variant");
+        }
+        String key = keyOf(url);
+        Resource resource = store.find(key, width);
+        if (resource == null) {
+            generate(url, key);
+            resource = store.find(key, width);
+            if (resource == null) {
+                throw new IllegalStateException("Variant was not stored");
+            }
+        }
+        // Variants of a URL never change, so the key and width make a strong ETag
+        return new Variant(resource, "\"" + key.substring(0, 32) + "-" + width + "\"");
+    }
+
+    private void generate(String url, String key) throws IOException {
+        String failure = failures.getIfPresent(key);
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            running.join();
+            return;
+        }
+        try {
+            // Another request may have finished it between the lookup and the claim
+            if (store.find(key, ImageVariants.WIDTHS[0]) == null) {
+                writeVariants(url, key);
+            }
+            mine.complete(null);
+        } catch (IOException | RuntimeException e) {
+            failures.put(key, "Could not resize image: " + e.getMessage());
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private void writeVariants(String url, String key) throws IOException {
+        BufferedImage original = decode(download(url));
+        // Widest first, so each step scales from the previous (already smaller) result
+        BufferedImage source = original;
+        for (int i = ImageVariants.WIDTHS.length - 1; i >= 0; i--) {
+            int width = ImageVariants.WIDTHS[i];
+            BufferedImage scaled = scale(source, Math.min(width, original.getWidth()));
+            store.save(key, width, encodeJpeg(scaled));
+            source = scaled;
+        }
+        recordDimensions(key, url, original.getWidth(), original.getHeight());
+        logger.debug("Generated image variants for {}", url);
+    }
+
+    // Decode an original, refusing it by its header dimensions when too large to decode
+    static BufferedImage decode(byte[] bytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalStateException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_ORIGINAL_PIXELS) {
+                    throw new IllegalStateException("Original has " + pixels + " pixels, more than " + MAX_ORIGINAL_PIXELS);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private byte[] download(String url) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(15))
+                .GET()
+                .build();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new IOException("Original returned HTTP " + response.statusCode());
+                }
+                byte[] bytes = body.readNBytes(MAX_ORIGINAL_BYTES + 1);
+                if (bytes.length > MAX_ORIGINAL_BYTES) {
+                    throw new IOException("Original is larger than " + MAX_ORIGINAL_BYTES + " bytes");
+                }
+                return bytes;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading " + url, e);
+        }
+    }
+
+    // Opaque RGB copy at the given width; transparent areas become white, as in JPEG
+    private static BufferedImage scale(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // Fill in hotel_image dimensions now that the original has been decoded; the variant
+    // key is the SHA-256 of the URL, so it doubles as the indexed url_hash
+    private void recordDimensions(String key, String url, int width, int height) {
+        try {
+            jdbcTemplate.update("UPDATE hotel_image SET width = ?, height = ? WHERE url_hash = ? AND url = ? " +
+                    "AND width IS NULL", width, height, key, url);
+        } catch (RuntimeException e) {
+            logger.warn("Could not record dimensions of {}: {}", url, e.getMessage());
+        }
+    }
+
+    private static boolean isVariantWidth(int width) {
+        for (int candidate : ImageVariants.WIDTHS) {
+            if (candidate == width) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String keyOf(String url) {
+        return HotelImage.hashOf(url);
+    }
+
+    public record Variant(Resource resource, String etag) {
+    }
+}
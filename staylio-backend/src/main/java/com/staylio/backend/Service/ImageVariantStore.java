@@ -0,0 +1,16 @@
+package com.staylio.backend.Service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+
+// Where generated image variants are kept. Variants never change once written, so a
+// store only needs to look them up and save new ones; LocalDiskImageVariantStore is
+// the default, an object store can be plugged in by declaring another bean.
+public interface ImageVariantStore {
+
+    // The stored variant, or null if it has not been generated yet
+    Resource find(String key, int width) throws IOException;
+
+    void save(String key, int width, byte[] jpeg) throws IOException;
+}
@@ -0,0 +1,141 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.dto.HotelDTO;
+import com.staylio.backend.dto.HotelSummaryDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+
+// URLs of the resized copies of a hotel photo, served by /api/images/{token}/{width}.
+// The token is the original URL plus an HMAC over it, so the image endpoint only ever
+// fetches photos this server handed out and needs no lookup to find them. Only photos
+// on staylio.images.allowed-hosts (or a subdomain of one) get variants; others are
+// shown from their original URL.
+@Component
+public class ImageVariants {
+
+    // Widths in pixels that variants are generated at
+    public static final int[] WIDTHS = { 320, 640, 1280 };
+
+    private static final int SIGNATURE_BYTES = 16;
+    private static final int MIN_KEY_LENGTH = 32;
+
+    private final String baseUrl;
+    private final SecretKeySpec signingKey;
+    private final List<String> allowedHosts;
+
+    public ImageVariants(@Value("${staylio.images.signing-key:}") String key,
+            @Value("${staylio.images.public-base-url:}") String publicBaseUrl,
+            @Value("${staylio.images.allowed-hosts:}") List<String> allowedHosts) {
+        // Anyone holding the key can make the server fetch any allowed photo, so there is no default
+        if (key == null || key.isBlank() || key.length() < MIN_KEY_LENGTH) {
+            throw new IllegalStateException("staylio.images.signing-key (IMAGE_SIGNING_KEY) must be set to a random "
+                    + "secret of at least " + MIN_KEY_LENGTH + " characters");
+        }
+        this.signingKey = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.baseUrl = publicBaseUrl != null ? publicBaseUrl.replaceAll("/+$", "") : "";
+        this.allowedHosts = allowedHosts.stream()
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .toList();
+    }
+
+    // srcset attribute value for a photo, e.g. ".../320 320w, .../640 640w, ..."
+    public String srcset(String url) {
+        String token = token(url);
+        if (token == null) {
+            return null;
+        }
+        StringJoiner srcset = new StringJoiner(", ");
+        for (int width : WIDTHS) {
+            srcset.add(baseUrl + "/api/images/" + token + "/" + width + " " + width + "w");
+        }
+        return srcset.toString();
+    }
+
+    public HotelSummaryDTO withSrcset(HotelSummaryDTO hotel) {
+        hotel.setImageSrcset(srcset(hotel.getImageUrl()));
+        return hotel;
+    }
+
+    public HotelDTO withSrcsets(HotelDTO hotel) {
+        if (hotel.getImageUrls() != null) {
+            hotel.setImageSrcsets(hotel.getImageUrls().stream().map(this::srcset).collect(Collectors.toList()));
+        }
+        return hotel;
+    }
+
+    public String token(String url) {
+        if (!isAllowed(url)) {
+            return null;
+        }
+        byte[] raw = url.trim().getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(raw) + "." + encoder.encodeToString(sign(raw));
+    }
+
+    // The original URL of a token, or null when it was not issued by this server
+    public String verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(token.substring(0, dot));
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(raw), signature)) {
+                return null;
+            }
+            String url = new String(raw, StandardCharsets.UTF_8);
+            return isAllowed(url) ? url : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // http(s) URL on one of the allowed hosts, on its default port
+    public boolean isAllowed(String url) {
+        if (url == null || url.isBlank()) {
+            return false;
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+            if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null || uri.getPort() != -1
+                    || uri.getRawUserInfo() != null) {
+                return false;
+            }
+            String host = uri.getHost().toLowerCase(Locale.ROOT);
+            for (String allowed : allowedHosts) {
+                if (host.equals(allowed) || host.endsWith("." + allowed)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private byte[] sign(byte[] raw) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            return Arrays.copyOf(mac.doFinal(raw), SIGNATURE_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.staylio.backend.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.staylio.backend.Repo.HotelRepository;
+import com.staylio.backend.dto.HotelDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps the landing page hotel list as ready-to-send JSON with a strong ETag. It is
+// rebuilt on the first request after a rating, claim or active-flag change, so page
+// views normally never touch the database.
+@Service
+public class LandingPageService {
+
+    // Upper bound on staleness for changes made by other instances
+    private static final long MAX_PAYLOAD_AGE_MS = 5 * 60 * 1000;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ImageVariants imageVariants;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile LandingPayload payload;
+
+    public LandingPayload getPayload() {
+        LandingPayload current = payload;
+        if (current != null && System.currentTimeMillis() - current.getBuiltAt() < MAX_PAYLOAD_AGE_MS) {
+            return current;
+        }
+        return rebuild();
+    }
+
+    // Called when a hotel's rating, claim status or active flag may have changed;
+    // takes effect after the surrounding transaction commits
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    private void clear() {
+        generation.incrementAndGet();
+        payload = null;
+    }
+
+    private synchronized LandingPayload rebuild() {
+        LandingPayload current = payload;
+        if (current != null && System.currentTimeMillis() - current.getBuiltAt() < MAX_PAYLOAD_AGE_MS) {
+            return current;
+        }
+        long startedAt = generation.get();
+        try {
+            List<HotelDTO> hotels = hotelRepository.findTop15ByHotelOwnerIdIsNotNullAndIsActiveTrueOrderByRatingDesc()
+                    .stream()
+                    .map(HotelDTO::fromEntity)
+                    .map(imageVariants::withSrcsets)
+                    .toList();
+            byte[] body = objectMapper.writeValueAsBytes(hotels);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            String etag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            LandingPayload built = new LandingPayload(body, etag, System.currentTimeMillis());
+            // Only keep it if nothing was invalidated while we were reading
+            if (generation.get() == startedAt) {
+                payload = built;
+            }
+            return built;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to build landing page payload", e);
+        }
+    }
+
+    public static final class LandingPayload {
+        private final byte[] body;
+        private final String etag;
+        private final long builtAt;
+
+        LandingPayload(byte[] body, String etag, long builtAt) {
+            this.body = body;
+            this.etag = etag;
+            this.builtAt = builtAt;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public long getBuiltAt() {
+            return builtAt;
+        }
+
+        // If-None-Match uses weak comparison and may list several tags or "*"
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.staylio.backend.Service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Variants as files under staylio.images.cache-dir: <dir>/<key prefix>/<key>/<width>.jpg.
+// Files are written to a temporary name and moved into place, so a reader never sees
+// a partly written image. The directory is kept under staylio.images.cache-max-size:
+// once a save goes over it, the photos used least recently (by the modification time
+// of their key directory, refreshed on reads) are deleted down to 90% of the limit.
+// Deleted photos are simply generated again on their next request.
+@Component
+public class LocalDiskImageVariantStore implements ImageVariantStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalDiskImageVariantStore.class);
+
+    // Reads refresh a photo's last-use time at most this often, so most reads write nothing
+    private static final Duration TOUCH_INTERVAL = Duration.ofHours(1);
+
+    private final Path root;
+    private final long maxBytes;
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    public LocalDiskImageVariantStore(@Value("${staylio.images.cache-dir:image-cache}") String cacheDir,
+            @Value("${staylio.images.cache-max-size:2GB}") DataSize maxSize) {
+        this.root = Paths.get(cacheDir).toAbsolutePath();
+        this.maxBytes = maxSize.toBytes();
+        try {
+            usedBytes.set(keyDirectories().stream().mapToLong(KeyDirectory::bytes).sum());
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Could not measure image cache {}: {}", root, e.getMessage());
+        }
+    }
+
+    @Override
+    public Resource find(String key, int width) {
+        Path file = pathOf(key, width);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            Path directory = file.getParent();
+            long now = System.currentTimeMillis();
+            if (now - Files.getLastModifiedTime(directory).toMillis() > TOUCH_INTERVAL.toMillis()) {
+                Files.setLastModifiedTime(directory, FileTime.fromMillis(now));
+            }
+        } catch (IOException e) {
+            // Only the eviction order suffers
+        }
+        return new FileSystemResource(file);
+    }
+
+    @Override
+    public void save(String key, int width, byte[] jpeg) throws IOException {
+        Path file = pathOf(key, width);
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), width + "-", ".tmp");
+        try {
+            Files.write(temp, jpeg);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        if (usedBytes.addAndGet(jpeg.length) > maxBytes) {
+            evict();
+        }
+    }
+
+    // Delete the least recently used photos until the cache is at 90% of its limit
+    private synchronized void evict() throws IOException {
+        List<KeyDirectory> directories = keyDirectories();
+        long used = directories.stream().mapToLong(KeyDirectory::bytes).sum();
+        long target = maxBytes / 10 * 9;
+        directories.sort(Comparator.comparingLong(KeyDirectory::lastUsed));
+        int deleted = 0;
+        for (KeyDirectory directory : directories) {
+            if (used <= target) {
+                break;
+            }
+            FileSystemUtils.deleteRecursively(directory.path());
+            used -= directory.bytes();
+            deleted++;
+        }
+        usedBytes.set(used);
+        logger.info("Evicted {} photos from the image cache, {} bytes left", deleted, used);
+    }
+
+    // Every <prefix>/<key> directory with its size and last-use time
+    private List<KeyDirectory> keyDirectories() throws IOException {
+        List<KeyDirectory> directories = new ArrayList<>();
+        if (!Files.isDirectory(root)) {
+            return directories;
+        }
+        try (Stream<Path> keys = Files.find(root, 2, (path, attributes) -> attributes.isDirectory()
+                && path.getNameCount() == root.getNameCount() + 2)) {
+            for (Path key : (Iterable<Path>) keys::iterator) {
+                long bytes = 0;
+                try (Stream<Path> files = Files.list(key)) {
+                    for (Path file : (Iterable<Path>) files::iterator) {
+                        bytes += Files.size(file);
+                    }
+                    directories.add(new KeyDirectory(key, bytes, Files.getLastModifiedTime(key).toMillis()));
+                } catch (IOException | UncheckedIOException e) {
+                    // Deleted while listing
+                }
+            }
+        }
+        return directories;
+    }
+
+    private Path pathOf(String key, int width) {
+        return root.resolve(key.substring(0, 2)).resolve(key).resolve(width + ".jpg");
+    }
+
+    private record KeyDirectory(Path path, long bytes, long lastUsed) {
+    }
+}
@@ -1,28 +1,67 @@
 package com.staylio.backend.Service;
 
-import com.staylio.backend.Repo.HotelRepository;
 import com.staylio.backend.Repo.ReviewRepository;
-import com.staylio.backend.model.Hotel;
+import com.staylio.backend.dto.ReviewCursor;
+import com.staylio.backend.dto.ReviewDTO;
+import com.staylio.backend.dto.SliceResponse;
 import com.staylio.backend.model.Review;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
 @Service
 public class ReviewService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+
     @Autowired
     private ReviewRepository reviewRepository;
 
     @Autowired
-    private HotelRepository hotelRepository;
+    private com.staylio.backend.Repo.BookingRepository bookingRepository;
 
     @Autowired
-    private com.staylio.backend.Repo.BookingRepository bookingRepository;
+    private LandingPageService landingPageService;
+
+    @Autowired
+    private HotelCacheService hotelCacheService;
+
+    @Autowired
+    private ReviewStatsService reviewStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Whether hotels has fetch_hotels.py's review_score column; looked up once at startup
+    private volatile boolean reviewScoreColumn;
+
+    @PostConstruct
+    public void detectReviewScoreColumn() {
+        try {
+            Integer columns = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() " +
+                            "AND table_name = 'hotels' AND column_name = 'review_score'",
+                    Integer.class);
+            reviewScoreColumn = columns != null && columns > 0;
+        } catch (RuntimeException e) {
+            reviewScoreColumn = false;
+        }
+    }
 
     public boolean canUserReview(Long hotelId, Long userId) {
         return bookingRepository.existsByHotelIdAndUserIdAndStatusAndCheckOutDateBefore(
@@ -32,8 +71,19 @@ public class ReviewService {
                 java.time.LocalDate.now());
     }
 
-    public List<Review> getReviewsByHotelId(Long hotelId) {
-        return reviewRepository.findByHotelIdOrderByCreatedAtDesc(hotelId);
+    // One page of a hotel's reviews, newest first; pass nextCursor back for the next page
+    public SliceResponse<ReviewDTO> getReviewsByHotelId(Long hotelId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ReviewCursor position = ReviewCursor.decode(cursor);
+        LocalDateTime beforeAt = position != null ? position.createdAt() : LATEST;
+        Long beforeId = position != null ? position.id() : 0L;
+
+        List<ReviewDTO> rows = reviewRepository.findPageByHotelId(hotelId, beforeAt, beforeId,
+                Limit.of(pageSize + 1));
+        boolean hasNext = rows.size() > pageSize;
+        List<ReviewDTO> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = page.isEmpty() ? null : ReviewCursor.encode(page.get(page.size() - 1));
+        return new SliceResponse<>(page, hasNext, nextCursor);
     }
 
     @Transactional
@@ -42,27 +92,108 @@ public class ReviewService {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN,
                     "You can only review a hotel after completing your stay.");
         }
+        if (!ReviewStatsService.isValidRating(review.getRating())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rating must be between 1 and 5.");
+        }
         Review savedReview = reviewRepository.save(review);
-        recalculateHotelRating(review.getHotelId());
+        applyRating(savedReview);
         return savedReview;
     }
 
+    // Fold one new rating into the hotel's running sum and count with a single UPDATE,
+    // whatever the number of reviews. rating is assigned first so MySQL, which applies
+    // SET clauses left to right, computes it from the old sum and count as well.
+    // The UPDATE also takes the hotel row lock, which serializes the statistics update.
+    private void applyRating(Review review) {
+        Long hotelId = review.getHotelId();
+        int rating = review.getRating();
+        int updated = jdbcTemplate.update(
+                "UPDATE hotels SET rating = ROUND((rating_sum + ?) * 1.0 / (review_count + 1), 1), " +
+                        "rating_sum = rating_sum + ?, review_count = review_count + 1 " +
+                        "WHERE id = ? AND rating_sum IS NOT NULL AND imported_review_count IS NOT NULL",
+                rating, rating, hotelId);
+        if (updated == 0) {
+            // Not aggregated yet (e.g. inserted by fetch_hotels.py): record its imported
+            // totals, leaving out this review, then count every review on top of them
+            seedImportedTotals(hotelId, review.getId());
+            recalculateHotelRating(hotelId);
+            return;
+        }
+        reviewStatsService.record(review);
+        hotelCacheService.evictHotel(hotelId);
+        landingPageService.invalidate();
+    }
+
+    // Recompute a hotel's rating, count, sum and review statistics from its imported
+    // totals and all of its reviews. The hotel row is locked first, so a review committed
+    // meanwhile is either counted here or added on top of the result by its own UPDATE.
+    // Must run in a transaction.
     public void recalculateHotelRating(Long hotelId) {
-        Double averageRating = reviewRepository.getAverageRatingByHotelId(hotelId);
-        if (averageRating == null) {
-            averageRating = 0.0;
+        if (jdbcTemplate.queryForList("SELECT id FROM hotels WHERE id = ? FOR UPDATE", Long.class, hotelId)
+                .isEmpty()) {
+            return;
         }
+        seedImportedTotals(hotelId, null);
+        Map<String, Object> imported = jdbcTemplate.queryForMap(
+                "SELECT imported_review_count, imported_rating_sum FROM hotels WHERE id = ?", hotelId);
+        Object[] totals = reviewRepository.getRatingTotalsByHotelId(hotelId).get(0);
+        long count = ((Number) imported.get("imported_review_count")).longValue() + ((Number) totals[0]).longValue();
+        long sum = ((Number) imported.get("imported_rating_sum")).longValue() + ((Number) totals[1]).longValue();
 
         // Round to 1 decimal place
-        averageRating = Math.round(averageRating * 10.0) / 10.0;
+        double averageRating = count == 0 ? 0.0 : Math.round(sum * 10.0 / count) / 10.0;
+
+        jdbcTemplate.update("UPDATE hotels SET rating = ?, review_count = ?, rating_sum = ? WHERE id = ?",
+                averageRating, count, sum, hotelId);
+        reviewStatsService.rebuild(hotelId);
+        hotelCacheService.evictHotel(hotelId);
+        landingPageService.invalidate();
+    }
 
-        long count = reviewRepository.countByHotelId(hotelId);
+    // Background check of the running totals: recompute every hotel whose sum, count or
+    // histogram no longer matches its imported totals plus its reviews (or was never
+    // aggregated). Hotels with no reviews and seeded totals are never touched, so
+    // imported counts survive. Returns how many were fixed.
+    public int reconcileHotelRatings() {
+        seedImportedTotals(null, null);
+        List<Long> drifted = jdbcTemplate.queryForList(
+                "SELECT h.id FROM hotels h LEFT JOIN (SELECT hotel_id, COUNT(*) AS cnt, SUM(rating) AS total " +
+                        "FROM reviews GROUP BY hotel_id) r ON r.hotel_id = h.id " +
+                        "LEFT JOIN (SELECT hotel_id, SUM(review_count) AS cnt FROM hotel_review_stats " +
+                        "GROUP BY hotel_id) s ON s.hotel_id = h.id " +
+                        "WHERE h.rating_sum IS NULL OR h.rating_sum <> h.imported_rating_sum + COALESCE(r.total, 0) " +
+                        "OR h.review_count <> h.imported_review_count + COALESCE(r.cnt, 0) " +
+                        "OR COALESCE(s.cnt, 0) <> COALESCE(r.cnt, 0)",
+                Long.class);
+        for (Long hotelId : drifted) {
+            transactionTemplate.executeWithoutResult(status -> recalculateHotelRating(hotelId));
+        }
+        return drifted.size();
+    }
 
-        Hotel hotel = hotelRepository.findById(hotelId).orElse(null);
-        if (hotel != null) {
-            hotel.setRating(averageRating);
-            hotel.setReviewCount((int) count);
-            hotelRepository.save(hotel);
+    // Record the totals of hotels that have none yet as imported: the review count beyond
+    // their rows in reviews, at their current rating. Hotels loaded by fetch_hotels.py
+    // carry booking.com's 0-10 review_score instead of a rating; half of it is used then.
+    // hotelId null seeds every hotel. A review posted before its hotel was seeded is passed
+    // as excludeReviewId, so it is not taken for one the imported count already includes.
+    private int seedImportedTotals(Long hotelId, Long excludeReviewId) {
+        String localCount = "(SELECT COUNT(*) FROM reviews r WHERE r.hotel_id = h.id" +
+                (excludeReviewId != null ? " AND r.id <> ?" : "") + ")";
+        String rating = reviewScoreColumn
+                ? "CASE WHEN h.rating > 0 THEN h.rating ELSE COALESCE(h.review_score, 0) / 2 END"
+                : "h.rating";
+        String sql = "UPDATE hotels h SET imported_review_count = GREATEST(h.review_count - " + localCount + ", 0), " +
+                "imported_rating_sum = ROUND(" + rating + " * GREATEST(h.review_count - " + localCount + ", 0)) " +
+                "WHERE h.imported_review_count IS NULL";
+        List<Object> args = new ArrayList<>();
+        if (excludeReviewId != null) {
+            args.add(excludeReviewId);
+            args.add(excludeReviewId);
+        }
+        if (hotelId != null) {
+            sql += " AND h.id = ?";
+            args.add(hotelId);
         }
+        return jdbcTemplate.update(sql, args.toArray());
     }
 }
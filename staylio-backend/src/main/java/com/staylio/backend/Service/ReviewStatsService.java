@@ -0,0 +1,150 @@
+package com.staylio.backend.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.staylio.backend.Repo.HotelReviewDailyStatsRepository;
+import com.staylio.backend.Repo.HotelReviewStatsRepository;
+import com.staylio.backend.Repo.ReviewRepository;
+import com.staylio.backend.dto.ReviewSummaryDTO;
+import com.staylio.backend.model.HotelReviewDailyStats;
+import com.staylio.backend.model.HotelReviewStats;
+import com.staylio.backend.model.Review;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-hotel review statistics: a star histogram and per-day totals for the rolling
+// averages, both updated as each review is added, so a summary never reads the
+// reviews themselves. Writers must hold the hotel row lock (ReviewService takes it),
+// which keeps the rebuild of a hotel without statistics from racing new reviews.
+@Service
+public class ReviewStatsService {
+
+    private static final int MIN_RATING = 1;
+    private static final int MAX_RATING = 5;
+    // Longest rolling window; day rows older than this are not needed
+    private static final int WINDOW_DAYS = 90;
+    // Upper bound on staleness for reviews added through other instances
+    private static final Duration SUMMARY_TTL = Duration.ofMinutes(5);
+
+    @Autowired
+    private HotelReviewStatsRepository hotelReviewStatsRepository;
+
+    @Autowired
+    private HotelReviewDailyStatsRepository hotelReviewDailyStatsRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private final Cache<Long, ReviewSummaryDTO> summaries = Caffeine.newBuilder()
+            .expireAfterWrite(SUMMARY_TTL)
+            .maximumSize(10_000)
+            .build();
+
+    // Count a newly saved review
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Review review) {
+        Long hotelId = review.getHotelId();
+        if (hotelReviewStatsRepository.increment(hotelId, review.getRating()) == 0) {
+            // No statistics yet: build them from all reviews, this one included
+            rebuild(hotelId);
+            return;
+        }
+        LocalDate day = review.getCreatedAt() != null ? review.getCreatedAt().toLocalDate() : LocalDate.now();
+        hotelReviewDailyStatsRepository.insertDayIfAbsent(hotelId, day);
+        hotelReviewDailyStatsRepository.increment(hotelId, day, review.getRating());
+        evictAfterCommit(hotelId);
+    }
+
+    // Recompute a hotel's statistics from its reviews
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rebuild(Long hotelId) {
+        Map<Integer, Long> histogram = emptyHistogram();
+        for (Object[] row : reviewRepository.countByRating(hotelId)) {
+            histogram.computeIfPresent((Integer) row[0], (rating, count) -> ((Number) row[1]).longValue());
+        }
+        hotelReviewStatsRepository.deleteByHotelId(hotelId);
+        List<HotelReviewStats> buckets = new ArrayList<>();
+        histogram.forEach((rating, count) -> buckets.add(new HotelReviewStats(hotelId, rating, count)));
+        hotelReviewStatsRepository.saveAll(buckets);
+
+        hotelReviewDailyStatsRepository.deleteByHotelId(hotelId);
+        List<HotelReviewDailyStats> days = new ArrayList<>();
+        LocalDateTime since = LocalDate.now().minusDays(WINDOW_DAYS - 1).atStartOfDay();
+        for (Object[] row : reviewRepository.getDailyTotalsSince(hotelId, since)) {
+            days.add(new HotelReviewDailyStats(hotelId, (LocalDate) row[0], ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue()));
+        }
+        hotelReviewDailyStatsRepository.saveAll(days);
+        evictAfterCommit(hotelId);
+    }
+
+    public ReviewSummaryDTO getSummary(Long hotelId) {
+        return summaries.get(hotelId, this::loadSummary);
+    }
+
+    // Drop day rows that have left the longest window; returns how many were removed
+    @Transactional
+    public int pruneDailyStats() {
+        return hotelReviewDailyStatsRepository.deleteOlderThan(LocalDate.now().minusDays(WINDOW_DAYS - 1));
+    }
+
+    private ReviewSummaryDTO loadSummary(Long hotelId) {
+        Map<Integer, Long> histogram = emptyHistogram();
+        for (HotelReviewStats bucket : hotelReviewStatsRepository.findByHotelId(hotelId)) {
+            histogram.computeIfPresent(bucket.getRating(), (rating, count) -> bucket.getReviewCount());
+        }
+
+        // Windows include today, so the last 30 days start 29 days ago
+        LocalDate since30 = LocalDate.now().minusDays(29);
+        LocalDate since90 = LocalDate.now().minusDays(WINDOW_DAYS - 1);
+        long count30 = 0, sum30 = 0, count90 = 0, sum90 = 0;
+        for (HotelReviewDailyStats day : hotelReviewDailyStatsRepository
+                .findByHotelIdAndReviewDateGreaterThanEqual(hotelId, since90)) {
+            count90 += day.getReviewCount();
+            sum90 += day.getRatingSum();
+            if (!day.getReviewDate().isBefore(since30)) {
+                count30 += day.getReviewCount();
+                sum30 += day.getRatingSum();
+            }
+        }
+        return new ReviewSummaryDTO(hotelId, histogram, count30, sum30, count90, sum90);
+    }
+
+    // Highest rating first, the order a bar chart lists them in
+    private static Map<Integer, Long> emptyHistogram() {
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        for (int rating = MAX_RATING; rating >= MIN_RATING; rating--) {
+            histogram.put(rating, 0L);
+        }
+        return histogram;
+    }
+
+    public static boolean isValidRating(Integer rating) {
+        return rating != null && rating >= MIN_RATING && rating <= MAX_RATING;
+    }
+
+    private void evictAfterCommit(Long hotelId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    summaries.invalidate(hotelId);
+                }
+            });
+        } else {
+            summaries.invalidate(hotelId);
+        }
+    }
+}
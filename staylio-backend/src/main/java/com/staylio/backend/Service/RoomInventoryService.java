@@ -0,0 +1,252 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.BookingRepository;
+import com.staylio.backend.Repo.RoomInventoryRepository;
+import com.staylio.backend.Repo.RoomRepository;
+import com.staylio.backend.model.Booking;
+import com.staylio.backend.model.Room;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class RoomInventoryService {
+
+    private static final int MIGRATION_PAGE_SIZE = 500;
+
+    @Autowired
+    private RoomInventoryRepository roomInventoryRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Reserve rooms of the booking's type for every night of the stay (checkOut exclusive)
+    // and record on the booking whether it now holds inventory. Hotels without a
+    // matching room type are not inventory-tracked.
+    @Transactional
+    public void reserve(Booking booking) {
+        Optional<Room> roomOpt = booking.getRoomType() != null
+                ? roomRepository.findByHotelIdAndRoomType(booking.getHotelId(), booking.getRoomType())
+                : Optional.empty();
+        if (roomOpt.isEmpty()) {
+            booking.setInventoryReserved(false);
+            return;
+        }
+
+        Room room = roomOpt.get();
+        LocalDate checkIn = booking.getCheckInDate();
+        LocalDate endDate = lastNightExclusive(checkIn, booking.getCheckOutDate());
+        long nights = ChronoUnit.DAYS.between(checkIn, endDate);
+        int rooms = normalizeQuantity(booking.getRooms());
+
+        ensureNights(room, checkIn, endDate, nights);
+
+        int reserved = roomInventoryRepository.reserveNights(room.getId(), checkIn, endDate, rooms);
+        if (reserved != nights) {
+            // Some night is sold out; the surrounding transaction rolls back the partial update
+            throw new IllegalStateException("This room is no longer available.");
+        }
+        booking.setInventoryReserved(true);
+    }
+
+    // Release the rooms held by a booking. Safe to call more than once: only a booking
+    // that still holds inventory gives rooms back. The caller saves the booking.
+    @Transactional
+    public void release(Booking booking) {
+        if (booking.getInventoryReserved() == null) {
+            // Not migrated yet (another instance is still running the migration):
+            // give back the room it took off the room count, as the migration would
+            restoreLegacyRoom(booking, new HashMap<>());
+            booking.setInventoryReserved(false);
+            return;
+        }
+        if (!booking.getInventoryReserved()) {
+            return;
+        }
+        roomOf(booking, new HashMap<>())
+                .ifPresent(room -> roomInventoryRepository.releaseNights(room.getId(), booking.getCheckInDate(),
+                        lastNightExclusive(booking.getCheckInDate(), booking.getCheckOutDate()),
+                        normalizeQuantity(booking.getRooms())));
+        booking.setInventoryReserved(false);
+    }
+
+    // Release the rooms of several bookings, looking each room type up once. Releases
+    // run in room/date order so concurrent batches lock inventory rows in the same order.
+    // Bookings not migrated yet give back their room count as in release(). The flags
+    // are cleared with one update, as callers bulk-update the bookings' status.
+    @Transactional
+    public void releaseAll(List<Booking> bookings) {
+        record Release(Long roomId, Booking booking) {
+        }
+        Map<String, Optional<Room>> rooms = new HashMap<>();
+        List<Release> releases = new ArrayList<>();
+        List<Long> releasedIds = new ArrayList<>();
+        for (Booking booking : bookings) {
+            if (booking.getInventoryReserved() == null) {
+                restoreLegacyRoom(booking, rooms);
+                releasedIds.add(booking.getId());
+            } else if (booking.getInventoryReserved()) {
+                releasedIds.add(booking.getId());
+                roomOf(booking, rooms).ifPresent(room -> releases.add(new Release(room.getId(), booking)));
+            }
+        }
+        releases.sort(Comparator.comparing(Release::roomId)
+                .thenComparing(release -> release.booking().getCheckInDate()));
+        for (Release release : releases) {
+            Booking booking = release.booking();
+            roomInventoryRepository.releaseNights(release.roomId(), booking.getCheckInDate(),
+                    lastNightExclusive(booking.getCheckInDate(), booking.getCheckOutDate()),
+                    normalizeQuantity(booking.getRooms()));
+        }
+        if (!releasedIds.isEmpty()) {
+            bookingRepository.clearInventoryReserved(releasedIds);
+        }
+    }
+
+    // Move bookings made before nightly inventory onto it, one page per transaction.
+    // Those bookings each took one room off Room.roomCount, which is now the capacity
+    // per night, so every booking that never gave it back (see holdsLegacyRoom)
+    // returns its room to the count. Pending and confirmed stays that have not ended
+    // are then recorded in booked_count so cancelling them releases real rooms.
+    // Returns the number of bookings migrated.
+    public int migrateLegacyBookings() {
+        int migrated = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = bookingRepository.findUnmigratedInventoryIds(afterId, Limit.of(MIGRATION_PAGE_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            Integer count = transactionTemplate.execute(status -> migratePage(ids));
+            migrated += count != null ? count : 0;
+            if (ids.size() < MIGRATION_PAGE_SIZE) {
+                break;
+            }
+        }
+        return migrated;
+    }
+
+    private int migratePage(List<Long> ids) {
+        // Rows migrated by another instance meanwhile are skipped
+        List<Booking> bookings = bookingRepository.lockUnmigratedInventoryByIds(ids);
+        Map<String, Optional<Room>> rooms = new HashMap<>();
+        Map<Room, Integer> restored = new HashMap<>();
+        for (Booking booking : bookings) {
+            Optional<Room> roomOpt = roomOf(booking, rooms);
+            if (roomOpt.isPresent() && holdsLegacyRoom(booking)) {
+                restored.merge(roomOpt.get(), 1, Integer::sum);
+            }
+        }
+        // Restore the counts first so night rows are created with the real capacity
+        for (Map.Entry<Room, Integer> entry : restored.entrySet()) {
+            Room room = entry.getKey();
+            room.setRoomCount((room.getRoomCount() != null ? room.getRoomCount() : 0) + entry.getValue());
+            roomRepository.save(room);
+            syncCapacity(room);
+        }
+
+        LocalDate today = LocalDate.now();
+        for (Booking booking : bookings) {
+            Optional<Room> roomOpt = roomOf(booking, rooms);
+            boolean active = booking.getStatus() == Booking.BookingStatus.PENDING
+                    || booking.getStatus() == Booking.BookingStatus.CONFIRMED;
+            LocalDate checkIn = booking.getCheckInDate();
+            LocalDate endDate = lastNightExclusive(checkIn, booking.getCheckOutDate());
+            if (roomOpt.isPresent() && active && endDate.isAfter(today)) {
+                Room room = roomOpt.get();
+                ensureNights(room, checkIn, endDate, ChronoUnit.DAYS.between(checkIn, endDate));
+                roomInventoryRepository.occupyNights(room.getId(), checkIn, endDate,
+                        normalizeQuantity(booking.getRooms()));
+                booking.setInventoryReserved(true);
+            } else {
+                booking.setInventoryReserved(false);
+            }
+        }
+        bookingRepository.saveAll(bookings);
+        return bookings.size();
+    }
+
+    // Whether a booking from before nightly inventory still has its room off the room
+    // count. Every booking took one, and only the guest's cancellation gave it back. That
+    // path refused cancellations on or after the check-in date, while auto-cancelling
+    // overdue bookings and admin status changes never gave the room back. A cancelled
+    // booking last updated before its check-in date is therefore taken as given back,
+    // and one cancelled on or after it (or with no update time) as still holding it.
+    private static boolean holdsLegacyRoom(Booking booking) {
+        if (booking.getStatus() != Booking.BookingStatus.CANCELLED) {
+            return true;
+        }
+        return booking.getUpdatedAt() == null
+                || !booking.getUpdatedAt().toLocalDate().isBefore(booking.getCheckInDate());
+    }
+
+    private void restoreLegacyRoom(Booking booking, Map<String, Optional<Room>> rooms) {
+        if (holdsLegacyRoom(booking)) {
+            roomOf(booking, rooms).ifPresent(room -> {
+                room.setRoomCount((room.getRoomCount() != null ? room.getRoomCount() : 0) + 1);
+                roomRepository.save(room);
+                syncCapacity(room);
+            });
+        }
+    }
+
+    private Optional<Room> roomOf(Booking booking, Map<String, Optional<Room>> rooms) {
+        if (booking.getRoomType() == null) {
+            return Optional.empty();
+        }
+        return rooms.computeIfAbsent(booking.getHotelId() + "|" + booking.getRoomType(),
+                key -> roomRepository.findByHotelIdAndRoomType(booking.getHotelId(), booking.getRoomType()));
+    }
+
+    // Apply a new room count to nights that have not happened yet
+    @Transactional
+    public void syncCapacity(Room room) {
+        if (room.getId() == null || room.getRoomCount() == null) {
+            return;
+        }
+        roomInventoryRepository.updateCapacityFrom(room.getId(), LocalDate.now(), room.getRoomCount());
+    }
+
+    @Transactional
+    public void deleteInventory(Long roomId) {
+        roomInventoryRepository.deleteByRoomId(roomId);
+    }
+
+    // Lazily create the per-night rows for a stay, seeded from the room count
+    private void ensureNights(Room room, LocalDate checkIn, LocalDate endDate, long nights) {
+        if (roomInventoryRepository.countNights(room.getId(), checkIn, endDate) == nights) {
+            return;
+        }
+        int capacity = room.getRoomCount() != null ? room.getRoomCount() : 0;
+        for (LocalDate night = checkIn; night.isBefore(endDate); night = night.plusDays(1)) {
+            roomInventoryRepository.insertNightIfAbsent(room.getId(), night, capacity);
+        }
+    }
+
+    // A same-day booking still occupies the check-in night
+    private LocalDate lastNightExclusive(LocalDate checkIn, LocalDate checkOut) {
+        return checkOut.isAfter(checkIn) ? checkOut : checkIn.plusDays(1);
+    }
+
+    private int normalizeQuantity(Integer quantity) {
+        return quantity != null && quantity > 0 ? quantity : 1;
+    }
+}
@@ -20,6 +20,9 @@ public class RoomService {
     @Autowired
     private HotelRepository hotelRepository;
 
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
     public List<Room> getRoomsByHotelId(Long hotelId) {
         return roomRepository.findByHotelId(hotelId);
     }
@@ -73,7 +76,9 @@ public class RoomService {
         if (roomDetails.getIsActive() != null)
             existingRoom.setIsActive(roomDetails.getIsActive());
 
-        return roomRepository.save(existingRoom);
+        Room savedRoom = roomRepository.save(existingRoom);
+        roomInventoryService.syncCapacity(savedRoom);
+        return savedRoom;
     }
 
     @Transactional
@@ -88,6 +93,7 @@ public class RoomService {
             throw new RuntimeException("Unauthorized");
         }
 
+        roomInventoryService.deleteInventory(id);
         roomRepository.deleteById(id);
     }
 }
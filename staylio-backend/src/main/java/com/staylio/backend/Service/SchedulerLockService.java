@@ -0,0 +1,82 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.SchedulerLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+// Database-backed locks for @Scheduled jobs, so that with several backend instances
+// each job runs once per trigger instead of once per instance.
+//
+// lockAtMostFor bounds how long a crashed instance can hold a job. lockAtLeastFor
+// keeps the lock after a quick run so an instance whose scheduler fires a little
+// later does not start the same run again. Lock times are taken from the database
+// clock, not the instance's own.
+@Service
+public class SchedulerLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLockService.class);
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    private final String instanceId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+
+    // Run the task if no other instance holds the lock; returns whether it ran here
+    public boolean runLocked(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable task) {
+        schedulerLockRepository.insertIfAbsent(name);
+        if (schedulerLockRepository.tryAcquire(name, instanceId, micros(lockAtMostFor)) == 0) {
+            logger.debug("Skipping {}: locked by another instance", name);
+            return false;
+        }
+        try {
+            task.run();
+            return true;
+        } finally {
+            schedulerLockRepository.release(name, instanceId, micros(lockAtLeastFor));
+        }
+    }
+
+    // Split a job into shards, each with its own lock. Every instance walks all shards
+    // starting at a random one and runs those nobody else has taken, so instances
+    // share the work instead of colliding. Returns how many shards ran here.
+    public int runSharded(String name, int shards, Duration lockAtMostFor, Duration lockAtLeastFor,
+            IntConsumer task) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be at least 1");
+        }
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        int ran = 0;
+        for (int i = 0; i < shards; i++) {
+            int shard = (start + i) % shards;
+            String lockName = shards == 1 ? name : name + ":" + shard + "/" + shards;
+            if (runLocked(lockName, lockAtMostFor, lockAtLeastFor, () -> task.accept(shard))) {
+                ran++;
+            }
+        }
+        return ran;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    private static long micros(Duration duration) {
+        return duration.toNanos() / 1_000;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
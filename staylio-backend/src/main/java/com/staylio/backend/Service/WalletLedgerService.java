@@ -0,0 +1,231 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.LedgerEntryRepository;
+import com.staylio.backend.Repo.WalletBalanceSnapshotRepository;
+import com.staylio.backend.Repo.WalletRepository;
+import com.staylio.backend.model.LedgerEntry;
+import com.staylio.backend.model.WalletBalanceSnapshot;
+import com.staylio.backend.model.WalletTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Append-only double-entry ledger behind the wallets. Each wallet transaction is
+// written once to wallet_transactions (the journal) and posted as a debit and a
+// credit entry in wallet_ledger_entries; nothing is ever updated, so concurrent
+// payments are plain inserts. A wallet's balance is its latest snapshot plus the
+// entries written after it.
+//
+// Debits that must not overdraw a wallet lock the wallet row first and then read
+// the balance with locking reads, which see every debit committed while waiting for
+// the lock whatever the transaction's isolation level.
+@Service
+public class WalletLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletLedgerService.class);
+
+    // Entries older than this are taken to be committed; snapshots never go past them,
+    // so a slow transaction cannot commit an entry below a snapshot's last_entry_id
+    private static final Duration SETTLE_LAG = Duration.ofMinutes(5);
+    private static final int MAX_REPORTED = 100;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private WalletBalanceSnapshotRepository walletBalanceSnapshotRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // A journal row and the two wallets it moves money between. The journal's from/to
+    // wallets are what users see; the debited wallet can differ (online payments are
+    // shown as from the user's wallet but are funded by the SYSTEM wallet).
+    public record Transfer(Long debitWalletId, Long creditWalletId, WalletTransaction journal) {
+    }
+
+    public BigDecimal balanceOf(Long walletId) {
+        WalletBalanceSnapshot snapshot = walletBalanceSnapshotRepository.findById(walletId).orElse(null);
+        if (snapshot == null) {
+            return ledgerEntryRepository.sumSince(walletId, 0L);
+        }
+        return snapshot.getBalance().add(ledgerEntryRepository.sumSince(walletId, snapshot.getLastEntryId()));
+    }
+
+    // Balance of a wallet that no other transaction can debit until this one ends.
+    // Under REPEATABLE READ a plain read could return the transaction's earlier view,
+    // so the snapshot and the entries after it are read with FOR UPDATE; entries are
+    // never updated, so these locks only hold back other debits of the same wallet.
+    @Transactional
+    public BigDecimal lockBalance(Long walletId) {
+        walletRepository.lockWallet(walletId);
+        BigDecimal balance = BigDecimal.ZERO;
+        long afterId = 0L;
+        List<Map<String, Object>> snapshot = jdbcTemplate.queryForList(
+                "SELECT balance, last_entry_id FROM wallet_balance_snapshots WHERE wallet_id = ? FOR UPDATE",
+                walletId);
+        if (!snapshot.isEmpty()) {
+            balance = (BigDecimal) snapshot.get(0).get("balance");
+            afterId = ((Number) snapshot.get(0).get("last_entry_id")).longValue();
+        }
+        for (BigDecimal amount : jdbcTemplate.queryForList(
+                "SELECT amount FROM wallet_ledger_entries WHERE wallet_id = ? AND id > ? FOR UPDATE",
+                BigDecimal.class, walletId, afterId)) {
+            balance = balance.add(amount);
+        }
+        return balance;
+    }
+
+    // Write the journal rows and their postings: two JDBC batches, whatever the count
+    @Transactional
+    public void record(List<Transfer> transfers) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(
+                        "INSERT INTO wallet_transactions (from_wallet_id, to_wallet_id, booking_id, amount, " +
+                                "transaction_type, description, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        WalletTransaction journal = transfers.get(i).journal();
+                        ps.setObject(1, journal.getFromWalletId());
+                        ps.setObject(2, journal.getToWalletId());
+                        ps.setObject(3, journal.getBookingId());
+                        ps.setBigDecimal(4, journal.getAmount());
+                        ps.setString(5, journal.getTransactionType().name());
+                        ps.setString(6, journal.getDescription());
+                        ps.setTimestamp(7, Timestamp.valueOf(journal.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return transfers.size();
+                    }
+                },
+                keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < transfers.size(); i++) {
+            transfers.get(i).journal().setId(((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+
+        List<Object[]> postings = new ArrayList<>(transfers.size() * 2);
+        for (Transfer transfer : transfers) {
+            WalletTransaction journal = transfer.journal();
+            Timestamp createdAt = Timestamp.valueOf(journal.getCreatedAt());
+            postings.add(new Object[] { journal.getId(), transfer.debitWalletId(), journal.getAmount().negate(), createdAt });
+            postings.add(new Object[] { journal.getId(), transfer.creditWalletId(), journal.getAmount(), createdAt });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO wallet_ledger_entries (transaction_id, wallet_id, amount, created_at) VALUES (?, ?, ?, ?)",
+                postings);
+    }
+
+    // Balances of wallets that have no opening transaction yet, as kept before the
+    // ledger existed: the wallet row plus its legacy sub-accounts, if that table is
+    // present. Zero balances are left out. Keyed on the opening transaction rather than
+    // on any ledger entry, so a wallet that was paid into before the migration reached
+    // it still gets its opening balance.
+    public Map<Long, BigDecimal> findOpeningBalances() {
+        Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT w.id, w.balance FROM wallets w WHERE w.owner_type <> 'SYSTEM' " +
+                "AND NOT EXISTS (SELECT 1 FROM wallet_transactions t WHERE t.transaction_type = 'OPENING_BALANCE' " +
+                "AND (t.from_wallet_id = w.id OR t.to_wallet_id = w.id))",
+                rs -> {
+                    balances.put(rs.getLong(1), rs.getBigDecimal(2));
+                });
+        Integer legacyTable = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() " +
+                        "AND table_name = 'wallet_sub_accounts'",
+                Integer.class);
+        if (legacyTable != null && legacyTable > 0) {
+            jdbcTemplate.query("SELECT wallet_id, SUM(balance) FROM wallet_sub_accounts GROUP BY wallet_id",
+                    rs -> {
+                        BigDecimal legacy = rs.getBigDecimal(2);
+                        balances.computeIfPresent(rs.getLong(1), (id, balance) -> balance.add(legacy));
+                    });
+        }
+        balances.values().removeIf(balance -> balance.signum() == 0);
+        return balances;
+    }
+
+    // Roll every wallet's snapshot forward over its settled entries. Returns how many
+    // snapshots were written.
+    @Transactional
+    public int takeSnapshots() {
+        LocalDateTime now = LocalDateTime.now();
+        Long upToId = ledgerEntryRepository.findFirstByCreatedAtBeforeOrderByIdDesc(now.minus(SETTLE_LAG))
+                .map(LedgerEntry::getId)
+                .orElse(null);
+        if (upToId == null) {
+            return 0;
+        }
+        List<Object[]> sums = ledgerEntryRepository.sumUnsnapshotted(upToId);
+        for (Object[] row : sums) {
+            Long walletId = (Long) row[0];
+            WalletBalanceSnapshot snapshot = walletBalanceSnapshotRepository.findById(walletId)
+                    .orElseGet(() -> new WalletBalanceSnapshot(walletId));
+            snapshot.setBalance(snapshot.getBalance().add((BigDecimal) row[1]));
+            snapshot.setLastEntryId(upToId);
+            snapshot.setTakenAt(now);
+            walletBalanceSnapshotRepository.save(snapshot);
+        }
+        return sums.size();
+    }
+
+    // Check the ledger against itself: every snapshot must equal the sum of the entries
+    // it covers, and every transaction's postings must cancel out. A snapshot that does
+    // not match is dropped, so reads fall back to the entries and the next snapshot run
+    // rebuilds it from scratch. Returns the number of problems found.
+    @Transactional
+    public int reconcile() {
+        int problems = 0;
+        for (Object[] row : ledgerEntryRepository.compareSnapshots()) {
+            BigDecimal snapshotBalance = (BigDecimal) row[1];
+            BigDecimal ledgerBalance = (BigDecimal) row[2];
+            if (snapshotBalance.compareTo(ledgerBalance) != 0) {
+                Long walletId = (Long) row[0];
+                logger.error("Wallet {} snapshot balance {} does not match ledger balance {}; dropping snapshot",
+                        walletId, snapshotBalance, ledgerBalance);
+                walletBalanceSnapshotRepository.deleteById(walletId);
+                problems++;
+            }
+        }
+        List<Long> unbalanced = ledgerEntryRepository.findUnbalancedTransactionIds(Limit.of(MAX_REPORTED));
+        if (!unbalanced.isEmpty()) {
+            logger.error("Wallet transactions with postings that do not cancel out: {}", unbalanced);
+            problems += unbalanced.size();
+        }
+        BigDecimal total = ledgerEntryRepository.sumAll();
+        if (total.signum() != 0) {
+            logger.error("Wallet ledger does not balance: entries sum to {}", total);
+            problems++;
+        }
+        return problems;
+    }
+}
@@ -2,75 +2,106 @@ package com.staylio.backend.Service;
 
 import com.staylio.backend.Repo.WalletRepository;
 import com.staylio.backend.Repo.WalletTransactionRepository;
+import com.staylio.backend.dto.SliceResponse;
+import com.staylio.backend.dto.WalletTransactionCursor;
 import com.staylio.backend.model.Wallet;
 import com.staylio.backend.model.WalletTransaction;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+// Wallet operations on top of the append-only ledger (WalletLedgerService): each
+// operation is recorded as journal rows plus postings, and balances are derived
+// from the postings. Crediting never touches a shared row; only debits, which must
+// not overdraw the wallet, lock the debited wallet while they check its balance.
 @Service
 public class WalletService {
 
+    // Owner id of the ADMIN and SYSTEM wallets. Not NULL, so the owner unique key
+    // (uk_wallets_owner) keeps a single wallet of each even when created concurrently.
+    public static final long PLATFORM_OWNER_ID = 0L;
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_PAGE_SIZE = 1000;
+    // Open ends of a history date range
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+    private static final Comparator<WalletTransaction> NEWEST_FIRST = Comparator
+            .comparing(WalletTransaction::getCreatedAt)
+            .thenComparing(WalletTransaction::getId)
+            .reversed();
+
     @Autowired
     private WalletRepository walletRepository;
 
     @Autowired
     private WalletTransactionRepository walletTransactionRepository;
 
+    @Autowired
+    private WalletLedgerService walletLedgerService;
+
     public Wallet getOrCreateAdminWallet() {
-        Optional<Wallet> adminWallet = walletRepository.findByOwnerType(Wallet.OwnerType.ADMIN);
-        if (adminWallet.isPresent()) {
-            return adminWallet.get();
-        }
-        Wallet newAdminWallet = new Wallet(Wallet.OwnerType.ADMIN, null);
-        return walletRepository.save(newAdminWallet);
+        return withBalance(getOrCreateUnownedWallet(Wallet.OwnerType.ADMIN));
     }
 
     public Wallet getOrCreateUserWallet(Long userId) {
-        Optional<Wallet> userWallet = walletRepository.findByOwnerTypeAndOwnerId(Wallet.OwnerType.USER, userId);
-        if (userWallet.isPresent()) {
-            return userWallet.get();
-        }
-        Wallet newUserWallet = new Wallet(Wallet.OwnerType.USER, userId);
-        return walletRepository.save(newUserWallet);
+        return withBalance(getOrCreateOwnerWallet(Wallet.OwnerType.USER, userId));
     }
 
     public Wallet getOrCreateHostWallet(Long hostId) {
-        Optional<Wallet> hostWallet = walletRepository.findByOwnerTypeAndOwnerId(Wallet.OwnerType.HOST, hostId);
-        if (hostWallet.isPresent()) {
-            return hostWallet.get();
-        }
-        Wallet newHostWallet = new Wallet(Wallet.OwnerType.HOST, hostId);
-        return walletRepository.save(newHostWallet);
+        return withBalance(getOrCreateOwnerWallet(Wallet.OwnerType.HOST, hostId));
     }
 
+    private Wallet getOrCreateUnownedWallet(Wallet.OwnerType ownerType) {
+        return getOrCreateOwnerWallet(ownerType, PLATFORM_OWNER_ID);
+    }
+
+    // Create the ADMIN and SYSTEM wallets, first adopting ones created before they had
+    // an owner id (owner_id NULL, which the unique key does not cover). Safe to run on
+    // several instances at once: adopting and inserting are single guarded statements.
     @Transactional
-    public void processOnlinePayment(Long userId, BigDecimal amount, Long bookingId) {
-        Wallet adminWallet = getOrCreateAdminWallet();
-        Wallet userWallet = getOrCreateUserWallet(userId);
-
-        // Update balances
-        // For online payment via gateway, we assume money comes from outside, so we
-        // just credit admin
-        // However, to track user contribution, we can debit user wallet if they loaded
-        // it,
-        // OR simply record the transaction from User (Null check) to Admin.
-        // Rule: User pays ONLINE -> Money goes to ADMIN WALLET.
+    public void ensurePlatformWallets() {
+        for (Wallet.OwnerType ownerType : List.of(Wallet.OwnerType.ADMIN, Wallet.OwnerType.SYSTEM)) {
+            if (walletRepository.findByOwnerTypeAndOwnerId(ownerType, PLATFORM_OWNER_ID).isEmpty()) {
+                walletRepository.findFirstByOwnerTypeAndOwnerIdIsNullOrderByIdAsc(ownerType)
+                        .ifPresent(legacy -> walletRepository.assignOwner(legacy.getId(), PLATFORM_OWNER_ID));
+            }
+            walletRepository.insertIfAbsent(ownerType.name(), PLATFORM_OWNER_ID, LocalDateTime.now());
+        }
+    }
 
-        // We treat it as: Gateway -> Admin Wallet
-        // We record From: UserWallet (for tracking) To: AdminWallet
+    private Wallet getOrCreateOwnerWallet(Wallet.OwnerType ownerType, Long ownerId) {
+        Optional<Wallet> wallet = walletRepository.findByOwnerTypeAndOwnerId(ownerType, ownerId);
+        if (wallet.isPresent()) {
+            return wallet.get();
+        }
+        walletRepository.insertIfAbsent(ownerType.name(), ownerId, LocalDateTime.now());
+        return walletRepository.findByOwnerForUpdate(ownerType, ownerId)
+                .orElseThrow(() -> new IllegalStateException("Could not create " + ownerType + " wallet " + ownerId));
+    }
 
-        // Optimistically update Admin Balance
-        adminWallet.setBalance(adminWallet.getBalance().add(amount));
-        adminWallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(adminWallet);
+    @Transactional
+    public void processOnlinePayment(Long userId, BigDecimal amount, Long bookingId) {
+        Wallet adminWallet = getOrCreateUnownedWallet(Wallet.OwnerType.ADMIN);
+        Wallet userWallet = getOrCreateOwnerWallet(Wallet.OwnerType.USER, userId);
 
-        // Record Transaction
+        // Rule: User pays ONLINE -> Money goes to ADMIN WALLET.
+        // We treat it as: Gateway -> Admin Wallet, so the money comes from the SYSTEM
+        // wallet. We record From: UserWallet (for tracking) To: AdminWallet
         WalletTransaction transaction = new WalletTransaction(
                 userWallet.getId(),
                 adminWallet.getId(),
@@ -78,29 +109,20 @@ public class WalletService {
                 amount,
                 WalletTransaction.TransactionType.USER_PAYMENT,
                 "Online booking payment received");
-        walletTransactionRepository.save(transaction);
+        walletLedgerService.record(List.of(new WalletLedgerService.Transfer(
+                getOrCreateUnownedWallet(Wallet.OwnerType.SYSTEM).getId(), adminWallet.getId(), transaction)));
     }
 
     @Transactional
     public void processRefund(Long userId, BigDecimal amount, Long bookingId) {
-        Wallet adminWallet = getOrCreateAdminWallet();
-        Wallet userWallet = getOrCreateUserWallet(userId);
+        Wallet adminWallet = getOrCreateUnownedWallet(Wallet.OwnerType.ADMIN);
+        Wallet userWallet = getOrCreateOwnerWallet(Wallet.OwnerType.USER, userId);
 
-        if (adminWallet.getBalance().compareTo(amount) < 0) {
+        if (walletLedgerService.lockBalance(adminWallet.getId()).compareTo(amount) < 0) {
             throw new IllegalStateException("Insufficient funds in Admin Wallet for refund.");
         }
 
-        // Debit Admin
-        adminWallet.setBalance(adminWallet.getBalance().subtract(amount));
-        adminWallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(adminWallet);
-
-        // Credit User
-        userWallet.setBalance(userWallet.getBalance().add(amount));
-        userWallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(userWallet);
-
-        // Record Transaction
+        // Debit Admin, Credit User
         WalletTransaction transaction = new WalletTransaction(
                 adminWallet.getId(),
                 userWallet.getId(),
@@ -108,48 +130,175 @@ public class WalletService {
                 amount,
                 WalletTransaction.TransactionType.USER_REFUND,
                 "Refund for cancelled booking (within 24h)");
-        walletTransactionRepository.save(transaction);
+        walletLedgerService.record(List.of(new WalletLedgerService.Transfer(
+                adminWallet.getId(), userWallet.getId(), transaction)));
     }
 
     @Transactional
     public void processHostSettlement(Long hostId, BigDecimal amount, Long bookingId) {
-        Wallet adminWallet = getOrCreateAdminWallet();
-        Wallet hostWallet = getOrCreateHostWallet(hostId);
-
-        if (adminWallet.getBalance().compareTo(amount) < 0) {
-            // In real world, this is critical. For now, we allow or throw.
-            // throw new IllegalStateException("Insufficient funds in Admin Wallet for
-            // settlement.");
-            // We'll proceed but log warning if negative? No, obey strict rule:
+        if (processHostSettlements(List.of(new HostSettlement(bookingId, hostId, amount))).isEmpty()) {
             throw new IllegalStateException("Insufficient funds in Admin Wallet for settlement.");
         }
+    }
+
+    // Settle a batch of completed bookings in one transaction: the admin wallet is
+    // locked once and all journal rows and postings are written in two JDBC batches.
+    // Bookings the admin wallet cannot cover are skipped, as processHostSettlement
+    // would refuse them. Returns the settled booking ids.
+    @Transactional
+    public List<Long> processHostSettlements(List<HostSettlement> settlements) {
+        List<Long> settled = new ArrayList<>();
+        if (settlements.isEmpty()) {
+            return settled;
+        }
+        Wallet adminWallet = getOrCreateUnownedWallet(Wallet.OwnerType.ADMIN);
+
+        BigDecimal available = walletLedgerService.lockBalance(adminWallet.getId());
+        Map<Long, Long> hostWalletIds = new HashMap<>();
+        List<WalletLedgerService.Transfer> transfers = new ArrayList<>();
+        for (HostSettlement settlement : settlements) {
+            if (available.compareTo(settlement.amount()) < 0) {
+                System.err.println("Insufficient funds in Admin Wallet to settle booking " + settlement.bookingId());
+                continue;
+            }
+            available = available.subtract(settlement.amount());
+            Long hostWalletId = hostWalletIds.computeIfAbsent(settlement.hostId(),
+                    hostId -> getOrCreateOwnerWallet(Wallet.OwnerType.HOST, hostId).getId());
+            WalletTransaction transaction = new WalletTransaction(
+                    adminWallet.getId(),
+                    hostWalletId,
+                    settlement.bookingId(),
+                    settlement.amount(),
+                    WalletTransaction.TransactionType.HOST_SETTLEMENT,
+                    "Settlement for completed booking");
+            transfers.add(new WalletLedgerService.Transfer(adminWallet.getId(), hostWalletId, transaction));
+            settled.add(settlement.bookingId());
+        }
+        walletLedgerService.record(transfers);
+        return settled;
+    }
 
-        // Debit Admin
-        adminWallet.setBalance(adminWallet.getBalance().subtract(amount));
-        adminWallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(adminWallet);
+    // Carry balances from before the ledger existed into it: one opening transaction
+    // from the SYSTEM wallet per wallet that has a balance but no opening transaction yet.
+    // Returns the number of wallets opened.
+    @Transactional
+    public int postOpeningBalances() {
+        Map<Long, BigDecimal> balances = walletLedgerService.findOpeningBalances();
+        if (balances.isEmpty()) {
+            return 0;
+        }
+        Long systemWalletId = getOrCreateUnownedWallet(Wallet.OwnerType.SYSTEM).getId();
+        List<WalletLedgerService.Transfer> transfers = new ArrayList<>();
+        for (Map.Entry<Long, BigDecimal> balance : balances.entrySet()) {
+            boolean credit = balance.getValue().signum() > 0;
+            Long from = credit ? systemWalletId : balance.getKey();
+            Long to = credit ? balance.getKey() : systemWalletId;
+            WalletTransaction transaction = new WalletTransaction(
+                    from,
+                    to,
+                    null,
+                    balance.getValue().abs(),
+                    WalletTransaction.TransactionType.OPENING_BALANCE,
+                    "Opening balance carried into the wallet ledger");
+            transfers.add(new WalletLedgerService.Transfer(from, to, transaction));
+        }
+        walletLedgerService.record(transfers);
+        return transfers.size();
+    }
 
-        // Credit Host
-        hostWallet.setBalance(hostWallet.getBalance().add(amount));
-        hostWallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(hostWallet);
+    public BigDecimal getBalance(Wallet wallet) {
+        return walletLedgerService.balanceOf(wallet.getId());
+    }
 
-        // Record Transaction
-        WalletTransaction transaction = new WalletTransaction(
-                adminWallet.getId(),
-                hostWallet.getId(),
-                bookingId,
-                amount,
-                WalletTransaction.TransactionType.HOST_SETTLEMENT,
-                "Settlement for completed booking");
-        walletTransactionRepository.save(transaction);
+    // The balance column is not updatable, so setting the ledger balance never writes it back
+    private Wallet withBalance(Wallet wallet) {
+        wallet.setBalance(getBalance(wallet));
+        return wallet;
     }
 
-    public List<WalletTransaction> getWalletTransactions(Long walletId) {
-        return walletTransactionRepository.findByFromWalletIdOrToWalletIdOrderByCreatedAtDesc(walletId, walletId);
+    public record HostSettlement(Long bookingId, Long hostId, BigDecimal amount) {
     }
 
-    public List<WalletTransaction> getAllTransactions() {
-        return walletTransactionRepository.findAll();
+    // Amount moved through a wallet per transaction type, in either direction, for
+    // summaries that should not depend on how much history a client has paged in
+    public Map<WalletTransaction.TransactionType, BigDecimal> getTransactionTotals(Long walletId) {
+        Map<WalletTransaction.TransactionType, BigDecimal> totals = new EnumMap<>(WalletTransaction.TransactionType.class);
+        List<Object[]> rows = new ArrayList<>(walletTransactionRepository.sumOutgoingByType(walletId));
+        rows.addAll(walletTransactionRepository.sumIncomingByType(walletId));
+        for (Object[] row : rows) {
+            totals.merge((WalletTransaction.TransactionType) row[0], (BigDecimal) row[1], BigDecimal::add);
+        }
+        return totals;
+    }
+
+    // One page of a wallet's history, newest first. from/to are inclusive dates and,
+    // like type, optional.
+    public SliceResponse<WalletTransaction> getWalletTransactions(Long walletId, String cursor, int size,
+            LocalDate from, LocalDate to, WalletTransaction.TransactionType type) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        WalletTransactionCursor position = WalletTransactionCursor.decode(cursor);
+        LocalDateTime fromAt = from != null ? from.atStartOfDay() : EARLIEST;
+        LocalDateTime beforeAt = position != null ? position.createdAt()
+                : to != null ? to.plusDays(1).atStartOfDay() : LATEST;
+        Long beforeId = position != null ? position.id() : 0L;
+
+        // Enough from each side to fill the page and tell whether another one follows
+        Limit limit = Limit.of(pageSize + 1);
+        List<WalletTransaction> rows = new ArrayList<>(walletTransactionRepository
+                .findOutgoingPage(walletId, fromAt, type, beforeAt, beforeId, limit));
+        rows.addAll(walletTransactionRepository.findIncomingPage(walletId, fromAt, type, beforeAt, beforeId, limit));
+        rows.sort(NEWEST_FIRST);
+
+        boolean hasNext = rows.size() > pageSize;
+        List<WalletTransaction> page = new ArrayList<>(hasNext ? rows.subList(0, pageSize) : rows);
+        String nextCursor = page.isEmpty() ? null : WalletTransactionCursor.encode(page.get(page.size() - 1));
+        return new SliceResponse<>(page, hasNext, nextCursor);
+    }
+
+    // Write the journal as CSV for finance, a page at a time, so memory use does not
+    // depend on the size of the range
+    public void exportTransactions(LocalDate from, LocalDate to, WalletTransaction.TransactionType type,
+            Writer out) throws IOException {
+        LocalDateTime fromAt = from != null ? from.atStartOfDay() : EARLIEST;
+        LocalDateTime toAt = to != null ? to.plusDays(1).atStartOfDay() : LATEST;
+        out.write("id,created_at,type,from_wallet_id,to_wallet_id,booking_id,amount,description\n");
+        long afterId = 0L;
+        while (true) {
+            List<WalletTransaction> page = walletTransactionRepository.findExportPage(afterId, fromAt, toAt, type,
+                    Limit.of(EXPORT_PAGE_SIZE));
+            StringBuilder csv = new StringBuilder(page.size() * 96);
+            for (WalletTransaction transaction : page) {
+                csv.append(transaction.getId()).append(',')
+                        .append(transaction.getCreatedAt()).append(',')
+                        .append(transaction.getTransactionType()).append(',')
+                        .append(valueOrEmpty(transaction.getFromWalletId())).append(',')
+                        .append(valueOrEmpty(transaction.getToWalletId())).append(',')
+                        .append(valueOrEmpty(transaction.getBookingId())).append(',')
+                        .append(transaction.getAmount().toPlainString()).append(',')
+                        .append(csvText(transaction.getDescription())).append('\n');
+            }
+            out.write(csv.toString());
+            out.flush();
+            if (page.size() < EXPORT_PAGE_SIZE) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private static String valueOrEmpty(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    // Quote free text for CSV and keep spreadsheets from reading it as a formula
+    private static String csvText(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        // Tab and carriage return also start formulas in some spreadsheet imports
+        if ("=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
     }
 }
@@ -0,0 +1,26 @@
+package com.staylio.backend.config;
+
+import com.staylio.backend.Service.BookingBatchService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Worker pool for the nightly booking jobs. Threads are named so they can be told apart
+// in thread dumps, and on shutdown the pool lets running chunks commit before the
+// context closes; a chunk cut off anyway rolls back and is picked up by the next run.
+@Configuration
+public class BatchExecutorConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor bookingBatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("booking-batch-");
+        executor.setCorePoolSize(BookingBatchService.PARALLELISM);
+        executor.setMaxPoolSize(BookingBatchService.PARALLELISM);
+        // BookingBatchService never has more than PARALLELISM chunks in flight
+        executor.setQueueCapacity(BookingBatchService.PARALLELISM);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
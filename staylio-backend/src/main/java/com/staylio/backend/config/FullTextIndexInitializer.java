@@ -0,0 +1,39 @@
+package com.staylio.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Creates the FULLTEXT index used by hotel search. ddl-auto cannot declare FULLTEXT
+// indexes, so it is added here once; InnoDB keeps it current on every insert/update.
+@Component
+public class FullTextIndexInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FullTextIndexInitializer.class);
+
+    public static final String HOTEL_INDEX = "ft_hotels_search";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() " +
+                            "AND table_name = 'hotels' AND index_name = ?",
+                    Integer.class, HOTEL_INDEX);
+            if (existing == null || existing == 0) {
+                logger.info("Creating full-text index {} on hotels", HOTEL_INDEX);
+                jdbcTemplate.execute("ALTER TABLE hotels ADD FULLTEXT INDEX " + HOTEL_INDEX +
+                        " (name, city, state, description, amenities)");
+            }
+        } catch (Exception e) {
+            logger.warn("Could not create full-text index {}: {}", HOTEL_INDEX, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.staylio.backend.config;
+
+import com.staylio.backend.Service.HotelImageService;
+import com.staylio.backend.Service.SchedulerLockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Fills hotel_image for hotels whose photos are still only in the legacy comma-separated
+// columns, and url_hash of rows written before that column existed. Runs under a
+// scheduler lock so concurrently starting instances do not both scan the tables.
+@Component
+public class HotelImageInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotelImageInitializer.class);
+
+    @Autowired
+    private HotelImageService hotelImageService;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            schedulerLockService.runLocked("hotel-image-backfill", Duration.ofMinutes(10), Duration.ZERO, () -> {
+                int hotels = hotelImageService.backfill();
+                if (hotels > 0) {
+                    logger.info("Moved photo lists of {} hotels into hotel_image", hotels);
+                }
+                int hashed = hotelImageService.backfillUrlHashes();
+                if (hashed > 0) {
+                    logger.info("Filled url_hash of {} hotel images", hashed);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("Could not backfill hotel images: {}", e.getMessage());
+        }
+    }
+}
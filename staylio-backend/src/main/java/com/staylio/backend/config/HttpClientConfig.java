@@ -0,0 +1,38 @@
+package com.staylio.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+// HTTP clients for outgoing calls. They keep connections alive and pool them per host,
+// so repeated calls skip the TCP/TLS handshake. Per-call read timeouts are set on each
+// request.
+@Configuration
+public class HttpClientConfig {
+
+    // Calls to the AI agent and other services we configure ourselves
+    @Bean
+    @Primary
+    public HttpClient httpClient(@Value("${staylio.http.connect-timeout:5s}") Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                // Plain HTTP/1.1: no h2c upgrade attempt against the agent
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    // Photo downloads. The URLs come from hotel data, so redirects are not followed:
+    // an allowed host must not be able to send the server on to an internal address.
+    @Bean
+    public HttpClient imageHttpClient(@Value("${staylio.http.connect-timeout:5s}") Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+}
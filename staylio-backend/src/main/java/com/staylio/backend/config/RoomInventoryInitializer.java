@@ -0,0 +1,42 @@
+package com.staylio.backend.config;
+
+import com.staylio.backend.Service.RoomInventoryService;
+import com.staylio.backend.Service.SchedulerLockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Moves bookings made before nightly inventory existed onto room_inventory: restores
+// the room counts they took and records their nights as booked. Runs once all beans
+// are created but before the web server accepts requests, so no booking is cancelled
+// half-migrated; the scheduler lock keeps concurrently starting instances apart and
+// migrated bookings are flagged, so reruns are no-ops.
+@Component
+public class RoomInventoryInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomInventoryInitializer.class);
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            schedulerLockService.runLocked("room-inventory-migration", Duration.ofMinutes(10), Duration.ZERO, () -> {
+                int migrated = roomInventoryService.migrateLegacyBookings();
+                if (migrated > 0) {
+                    logger.info("Moved {} bookings onto nightly room inventory", migrated);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("Could not migrate bookings to nightly room inventory: {}", e.getMessage());
+        }
+    }
+}
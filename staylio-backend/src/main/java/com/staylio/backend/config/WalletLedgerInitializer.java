@@ -0,0 +1,44 @@
+package com.staylio.backend.config;
+
+import com.staylio.backend.Service.SchedulerLockService;
+import com.staylio.backend.Service.WalletService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Creates the ADMIN and SYSTEM wallets and moves wallet balances kept before the
+// wallet ledger existed into it as opening entries. Runs once all beans are created
+// but before the web server accepts requests, so no payment reaches a wallet ahead
+// of its opening balance on this instance. The opening balances are posted under a
+// scheduler lock so concurrently starting instances do not both post them; wallets
+// that already have an opening transaction are skipped, so reruns are no-ops.
+@Component
+public class WalletLedgerInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletLedgerInitializer.class);
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            walletService.ensurePlatformWallets();
+            schedulerLockService.runLocked("wallet-ledger-opening", Duration.ofMinutes(10), Duration.ZERO, () -> {
+                int opened = walletService.postOpeningBalances();
+                if (opened > 0) {
+                    logger.info("Posted opening balances for {} wallets", opened);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("Could not post opening wallet balances: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.staylio.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HotelAvailabilityDTO {
+    private Long hotelId;
+    private boolean available;
+    private int remainingRooms;
+    private List<RoomAvailabilityDTO> roomTypes = new ArrayList<>();
+
+    public HotelAvailabilityDTO() {
+    }
+
+    public HotelAvailabilityDTO(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public int getRemainingRooms() {
+        return remainingRooms;
+    }
+
+    public void setRemainingRooms(int remainingRooms) {
+        this.remainingRooms = remainingRooms;
+    }
+
+    public List<RoomAvailabilityDTO> getRoomTypes() {
+        return roomTypes;
+    }
+
+    public void setRoomTypes(List<RoomAvailabilityDTO> roomTypes) {
+        this.roomTypes = roomTypes;
+    }
+}
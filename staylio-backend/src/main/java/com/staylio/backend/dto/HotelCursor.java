@@ -0,0 +1,47 @@
+package com.staylio.backend.dto;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Opaque next-page token for hotel lists ordered by (claimed, rating, id)
+public final class HotelCursor {
+
+    // Claimed hotels first, then best rated; id keeps the order total
+    public static final Sort SORT = Sort.by(Sort.Direction.DESC, "isClaimed", "rating", "id");
+
+    private HotelCursor() {
+    }
+
+    // Turn a client token back into a scroll position (null or blank = first page)
+    public static ScrollPosition decode(String token) {
+        if (token == null || token.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("isClaimed", Boolean.parseBoolean(parts[0]));
+            keys.put("rating", Double.parseDouble(parts[1]));
+            keys.put("id", Long.parseLong(parts[2]));
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            return null;
+        }
+        Map<String, ?> keys = keyset.getKeys();
+        String raw = keys.get("isClaimed") + "|" + keys.get("rating") + "|" + keys.get("id");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
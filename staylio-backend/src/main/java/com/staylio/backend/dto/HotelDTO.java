@@ -41,6 +41,7 @@ public class HotelDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<String> imageUrls;
+    private List<String> imageSrcsets; // srcset of each entry in imageUrls (null if it has none), filled in by ImageVariants
     private String name; // Added name field
 
     // Constructors
@@ -93,6 +94,7 @@ public class HotelDTO {
         } else {
             dto.setImageUrls(new java.util.ArrayList<>());
         }
+        dto.setImageSrcsets(new java.util.ArrayList<>());
 
         return dto;
     }
@@ -361,4 +363,12 @@ public class HotelDTO {
     public void setImageUrls(List<String> imageUrls) {
         this.imageUrls = imageUrls;
     }
+
+    public List<String> getImageSrcsets() {
+        return imageSrcsets;
+    }
+
+    public void setImageSrcsets(List<String> imageSrcsets) {
+        this.imageSrcsets = imageSrcsets;
+    }
 }
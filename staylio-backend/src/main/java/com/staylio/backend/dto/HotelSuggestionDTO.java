@@ -0,0 +1,61 @@
+package com.staylio.backend.dto;
+
+// One typeahead entry: a hotel name, city or state
+public class HotelSuggestionDTO {
+    private String text;
+    private String type; // HOTEL, CITY or STATE
+    private Long hotelId; // Only for HOTEL
+    private String location; // City of a hotel, state of a city
+    private int popularity;
+
+    public HotelSuggestionDTO() {
+    }
+
+    public HotelSuggestionDTO(String text, String type, Long hotelId, String location, int popularity) {
+        this.text = text;
+        this.type = type;
+        this.hotelId = hotelId;
+        this.location = location;
+        this.popularity = popularity;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public int getPopularity() {
+        return popularity;
+    }
+
+    public void setPopularity(int popularity) {
+        this.popularity = popularity;
+    }
+}
@@ -0,0 +1,135 @@
+package com.staylio.backend.dto;
+
+import java.math.BigDecimal;
+
+// Card fields for hotel list views, selected straight from the query so the
+// TEXT columns (description, amenities, policies, photo list) are never read
+public class HotelSummaryDTO {
+    private Long id;
+    private String name;
+    private String city;
+    private String country;
+    private BigDecimal pricePerNight;
+    private Double rating;
+    private Integer reviewCount;
+    private Boolean isClaimed;
+    private String imageUrl;
+    private String imageSrcset; // Resized variants of imageUrl, filled in by ImageVariants
+    private Double distanceKm; // Only set by the nearby search
+
+    public HotelSummaryDTO() {
+    }
+
+    public HotelSummaryDTO(Long id, String name, String city, String country, BigDecimal pricePerNight,
+            Double rating, Integer reviewCount, Boolean isClaimed, String coverImageUrl) {
+        this.id = id;
+        this.name = name;
+        this.city = city;
+        this.country = country;
+        this.pricePerNight = pricePerNight;
+        this.rating = rating;
+        this.reviewCount = reviewCount;
+        this.isClaimed = isClaimed;
+        this.imageUrl = coverImageUrl != null && !coverImageUrl.isBlank() ? coverImageUrl.trim() : null;
+    }
+
+    public HotelSummaryDTO(Long id, String name, String city, String country, BigDecimal pricePerNight,
+            Double rating, Integer reviewCount, Boolean isClaimed, String coverImageUrl, Double distanceKm) {
+        this(id, name, city, country, pricePerNight, rating, reviewCount, isClaimed, coverImageUrl);
+        this.distanceKm = distanceKm != null ? Math.round(distanceKm * 100) / 100.0 : null;
+    }
+
+    public static HotelSummaryDTO fromProjection(HotelSummaryProjection hotel) {
+        return new HotelSummaryDTO(hotel.getId(), hotel.getName(), hotel.getCity(), hotel.getCountry(),
+                hotel.getPricePerNight(), hotel.getRating(), hotel.getReviewCount(), hotel.getIsClaimed(),
+                hotel.getCoverImageUrl());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public BigDecimal getPricePerNight() {
+        return pricePerNight;
+    }
+
+    public void setPricePerNight(BigDecimal pricePerNight) {
+        this.pricePerNight = pricePerNight;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+
+    public void setRating(Double rating) {
+        this.rating = rating;
+    }
+
+    public Integer getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(Integer reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public Boolean getIsClaimed() {
+        return isClaimed;
+    }
+
+    public void setIsClaimed(Boolean isClaimed) {
+        this.isClaimed = isClaimed;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getImageSrcset() {
+        return imageSrcset;
+    }
+
+    public void setImageSrcset(String imageSrcset) {
+        this.imageSrcset = imageSrcset;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
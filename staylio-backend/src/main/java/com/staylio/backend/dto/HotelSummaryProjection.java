@@ -0,0 +1,25 @@
+package com.staylio.backend.dto;
+
+import java.math.BigDecimal;
+
+// Columns read for a hotel card; used by the keyset list queries, which cannot
+// construct HotelSummaryDTO directly
+public interface HotelSummaryProjection {
+    Long getId();
+
+    String getName();
+
+    String getCity();
+
+    String getCountry();
+
+    BigDecimal getPricePerNight();
+
+    Double getRating();
+
+    Integer getReviewCount();
+
+    Boolean getIsClaimed();
+
+    String getCoverImageUrl();
+}
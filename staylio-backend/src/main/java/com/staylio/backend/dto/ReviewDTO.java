@@ -0,0 +1,94 @@
+package com.staylio.backend.dto;
+
+import java.time.LocalDateTime;
+
+// A review as shown in the hotel review feed, with the reviewer's display name joined
+// in; the rest of the user row (email, phone, password hash) is never selected
+public class ReviewDTO {
+    private Long id;
+    private Long hotelId;
+    private Long userId;
+    private Integer rating;
+    private String reviewText;
+    private LocalDateTime createdAt;
+    private String username;
+
+    public ReviewDTO() {
+    }
+
+    public ReviewDTO(Long id, Long hotelId, Long userId, Integer rating, String reviewText,
+            LocalDateTime createdAt, String name, String firstName, String lastName) {
+        this.id = id;
+        this.hotelId = hotelId;
+        this.userId = userId;
+        this.rating = rating;
+        this.reviewText = reviewText;
+        this.createdAt = createdAt;
+        this.username = displayName(name, firstName, lastName);
+    }
+
+    // Prefer the name the user chose, otherwise first and last name
+    private static String displayName(String name, String firstName, String lastName) {
+        if (name != null && !name.isBlank()) {
+            return name.trim();
+        }
+        String fullName = ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+        return fullName.isEmpty() ? null : fullName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    public String getReviewText() {
+        return reviewText;
+    }
+
+    public void setReviewText(String reviewText) {
+        this.reviewText = reviewText;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+}
@@ -0,0 +1,103 @@
+package com.staylio.backend.dto;
+
+import java.util.Map;
+
+// Review statistics for a hotel page: star distribution and recent averages.
+// Averages are rounded to 1 decimal place and null when there are no reviews.
+public class ReviewSummaryDTO {
+    private Long hotelId;
+    private long reviewCount;
+    private Double averageRating;
+    private Map<Integer, Long> histogram; // star rating (1-5) -> number of reviews
+    private long last30DaysCount;
+    private Double last30DaysAverage;
+    private long last90DaysCount;
+    private Double last90DaysAverage;
+
+    public ReviewSummaryDTO() {
+    }
+
+    public ReviewSummaryDTO(Long hotelId, Map<Integer, Long> histogram, long last30DaysCount,
+            long last30DaysSum, long last90DaysCount, long last90DaysSum) {
+        this.hotelId = hotelId;
+        this.histogram = histogram;
+        long sum = 0;
+        for (Map.Entry<Integer, Long> bucket : histogram.entrySet()) {
+            reviewCount += bucket.getValue();
+            sum += bucket.getKey() * bucket.getValue();
+        }
+        this.averageRating = average(sum, reviewCount);
+        this.last30DaysCount = last30DaysCount;
+        this.last30DaysAverage = average(last30DaysSum, last30DaysCount);
+        this.last90DaysCount = last90DaysCount;
+        this.last90DaysAverage = average(last90DaysSum, last90DaysCount);
+    }
+
+    private static Double average(long sum, long count) {
+        return count == 0 ? null : Math.round(sum * 10.0 / count) / 10.0;
+    }
+
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(Double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public Map<Integer, Long> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(Map<Integer, Long> histogram) {
+        this.histogram = histogram;
+    }
+
+    public long getLast30DaysCount() {
+        return last30DaysCount;
+    }
+
+    public void setLast30DaysCount(long last30DaysCount) {
+        this.last30DaysCount = last30DaysCount;
+    }
+
+    public Double getLast30DaysAverage() {
+        return last30DaysAverage;
+    }
+
+    public void setLast30DaysAverage(Double last30DaysAverage) {
+        this.last30DaysAverage = last30DaysAverage;
+    }
+
+    public long getLast90DaysCount() {
+        return last90DaysCount;
+    }
+
+    public void setLast90DaysCount(long last90DaysCount) {
+        this.last90DaysCount = last90DaysCount;
+    }
+
+    public Double getLast90DaysAverage() {
+        return last90DaysAverage;
+    }
+
+    public void setLast90DaysAverage(Double last90DaysAverage) {
+        this.last90DaysAverage = last90DaysAverage;
+    }
+}
@@ -0,0 +1,66 @@
+package com.staylio.backend.dto;
+
+public class RoomAvailabilityDTO {
+    private Long roomId;
+    private Long hotelId;
+    private String roomType;
+    private Integer totalRooms;
+    private Integer bookedRooms;
+
+    public RoomAvailabilityDTO() {
+    }
+
+    // Used by the JPQL constructor expression in RoomInventoryRepository
+    public RoomAvailabilityDTO(Long roomId, Long hotelId, String roomType, Integer totalRooms, Integer bookedRooms) {
+        this.roomId = roomId;
+        this.hotelId = hotelId;
+        this.roomType = roomType;
+        this.totalRooms = totalRooms != null ? totalRooms : 0;
+        this.bookedRooms = bookedRooms != null ? bookedRooms : 0;
+    }
+
+    // Rooms still free on the busiest night of the range
+    public int getRemainingRooms() {
+        return Math.max(0, totalRooms - bookedRooms);
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    public String getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    public Integer getTotalRooms() {
+        return totalRooms;
+    }
+
+    public void setTotalRooms(Integer totalRooms) {
+        this.totalRooms = totalRooms;
+    }
+
+    public Integer getBookedRooms() {
+        return bookedRooms;
+    }
+
+    public void setBookedRooms(Integer bookedRooms) {
+        this.bookedRooms = bookedRooms;
+    }
+}
@@ -0,0 +1,30 @@
+package com.staylio.backend.dto;
+
+import com.staylio.backend.model.WalletTransaction;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque next-page token for wallet history ordered by (createdAt, id), newest first
+public record WalletTransactionCursor(LocalDateTime createdAt, Long id) {
+
+    // Turn a client token back into a position (null or blank = first page)
+    public static WalletTransactionCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            return new WalletTransactionCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static String encode(WalletTransaction last) {
+        String raw = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,12 +1,16 @@
 package com.staylio.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // Keyset scans of the nightly status jobs
+        @Index(name = "idx_bookings_status_id", columnList = "status, id")
+})
 public class Booking {
 
     @Id
@@ -80,6 +84,12 @@ public class Booking {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Whether the stay currently holds rooms in room_inventory. NULL for bookings made
+    // before nightly inventory existed until RoomInventoryInitializer has migrated them.
+    @JsonIgnore
+    @Column(name = "inventory_reserved")
+    private Boolean inventoryReserved;
+
     // Enum for booking status
     public enum BookingStatus {
         PENDING, CONFIRMED, CANCELLED, COMPLETED
@@ -313,6 +323,14 @@ public class Booking {
         this.updatedAt = updatedAt;
     }
 
+    public Boolean getInventoryReserved() {
+        return inventoryReserved;
+    }
+
+    public void setInventoryReserved(Boolean inventoryReserved) {
+        this.inventoryReserved = inventoryReserved;
+    }
+
     @Override
     public String toString() {
         return "Booking{" +
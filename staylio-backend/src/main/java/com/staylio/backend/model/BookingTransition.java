@@ -0,0 +1,89 @@
+package com.staylio.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Persistent delay queue entry: an automatic status change that becomes due for a
+// booking at due_at. Rows are registered when a booking is created or confirmed
+// and removed when the transition is processed.
+@Entity
+@Table(name = "booking_transitions", uniqueConstraints = @UniqueConstraint(name = "uk_booking_transitions_booking_type", columnNames = {
+        "booking_id", "transition" }), indexes = {
+                @Index(name = "idx_booking_transitions_due", columnList = "due_at")
+        })
+public class BookingTransition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TransitionType transition;
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    // Failed tries so far; each failure pushes due_at further out
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    public enum TransitionType {
+        // PENDING -> CANCELLED once the check-in date has passed
+        AUTO_CANCEL,
+        // CONFIRMED -> COMPLETED (and host settlement) at check-out
+        AUTO_COMPLETE
+    }
+
+    public BookingTransition() {
+    }
+
+    public BookingTransition(Long bookingId, TransitionType transition, LocalDateTime dueAt) {
+        this.bookingId = bookingId;
+        this.transition = transition;
+        this.dueAt = dueAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public TransitionType getTransition() {
+        return transition;
+    }
+
+    public void setTransition(TransitionType transition) {
+        this.transition = transition;
+    }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+}
@@ -1,13 +1,22 @@
 package com.staylio.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Formula;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "hotels")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "hotels", indexes = {
+        @Index(name = "idx_hotels_claimed_rating_id", columnList = "is_claimed, rating, id"),
+        @Index(name = "idx_hotels_city_claimed_rating_id", columnList = "city, is_claimed, rating, id"),
+        @Index(name = "idx_hotels_lat_lon", columnList = "latitude, longitude")
+})
 public class Hotel {
 
     @Id
@@ -88,18 +97,44 @@ public class Hotel {
     @Column(name = "all_photo_urls", columnDefinition = "TEXT")
     private String allPhotoUrls;
 
-    @Column(nullable = false)
+    // rating, review_count and rating_sum are maintained in SQL by ReviewService, never
+    // written back from a loaded entity, so saving a hotel cannot undo a new review
+    @Column(nullable = false, updatable = false)
     private Double rating = 0.0;
 
-    @Column(name = "review_count", nullable = false)
+    @Column(name = "review_count", nullable = false, updatable = false)
     private Integer reviewCount = 0;
 
+    // Sum of all review ratings, so a new review updates the average without reading the
+    // others. NULL for hotels not yet aggregated this way.
+    @Column(name = "rating_sum", updatable = false)
+    private Long ratingSum;
+
+    // The part of review_count and rating_sum not backed by rows in reviews: the totals
+    // a hotel was created or imported with (e.g. booking.com counts). Recomputing from
+    // reviews adds to these instead of replacing them. NULL until seeded.
+    @Column(name = "imported_review_count", updatable = false)
+    private Integer importedReviewCount;
+
+    @Column(name = "imported_rating_sum", updatable = false)
+    private Long importedRatingSum;
+
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
     @Column(name = "is_featured")
     private Boolean isFeatured = false;
 
+    // Derived by the database from hotel_owner_id so list queries can seek on
+    // (is_claimed, rating, id) through an index
+    @Column(name = "is_claimed", insertable = false, updatable = false, columnDefinition = "BOOLEAN GENERATED ALWAYS AS (hotel_owner_id IS NOT NULL)")
+    private Boolean isClaimed;
+
+    // First entry of all_photo_urls, computed in SQL so list projections can show a
+    // cover image without reading the whole photo list
+    @Formula("SUBSTRING(all_photo_urls, 1, LOCATE(',', CONCAT(all_photo_urls, ',')) - 1)")
+    private String coverImageUrl;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -148,6 +183,12 @@ public class Hotel {
         if (this.reviewCount == null) {
             this.reviewCount = 0;
         }
+        // A new hotel has no reviews yet, so whatever totals it comes with are imported
+        if (this.ratingSum == null || (this.ratingSum == 0 && this.reviewCount > 0)) {
+            this.ratingSum = Math.round(this.rating * this.reviewCount);
+        }
+        this.importedReviewCount = this.reviewCount;
+        this.importedRatingSum = this.ratingSum;
         if (this.availableRooms == null) {
             this.availableRooms = this.totalRooms;
         }
@@ -399,6 +440,14 @@ public class Hotel {
         this.isFeatured = isFeatured;
     }
 
+    public Boolean getIsClaimed() {
+        return isClaimed;
+    }
+
+    public String getCoverImageUrl() {
+        return coverImageUrl;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,110 @@
+package com.staylio.backend.model;
+
+import jakarta.persistence.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// One photo of a hotel; position orders a hotel's photos (0 is the cover). Width and
+// height are in pixels when known. url is too long for a MySQL index, so photos are
+// looked up by url_hash, the SHA-256 of the URL.
+@Entity
+@Table(name = "hotel_image", uniqueConstraints = @UniqueConstraint(name = "uk_hotel_image_hotel_position", columnNames = {
+        "hotel_id", "position" }), indexes = @Index(name = "idx_hotel_image_url_hash", columnList = "url_hash"))
+public class HotelImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hotel_id", nullable = false)
+    private Long hotelId;
+
+    @Column(nullable = false)
+    private Integer position;
+
+    @Column(nullable = false, length = 1024)
+    private String url;
+
+    @Column(name = "url_hash", length = 64)
+    private String urlHash;
+
+    private Integer width;
+
+    private Integer height;
+
+    public HotelImage() {
+    }
+
+    public HotelImage(Long hotelId, Integer position, String url) {
+        this.hotelId = hotelId;
+        this.position = position;
+        this.url = url;
+        this.urlHash = hashOf(url);
+    }
+
+    // Hex SHA-256 of a URL, as stored in url_hash
+    public static String hashOf(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+        this.urlHash = url != null ? hashOf(url) : null;
+    }
+
+    public String getUrlHash() {
+        return urlHash;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+}
@@ -2,6 +2,8 @@ package com.staylio.backend.model;
 
 import jakarta.persistence.*;
 
+// Legacy comma-separated photo lists. Photos are served from hotel_image now; this
+// table is only read once, to carry existing lists over (see HotelImageService.backfill).
 @Entity
 @Table(name = "hotels_image")  // EXACT TABLE NAME
 public class HotelImages {
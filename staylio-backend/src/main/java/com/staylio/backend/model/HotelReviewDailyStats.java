@@ -0,0 +1,78 @@
+package com.staylio.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// Number and rating sum of a hotel's reviews written on one day. The rolling 30/90-day
+// averages add up at most 90 of these rows; older days are pruned nightly.
+@Entity
+@Table(name = "hotel_review_daily_stats", uniqueConstraints = @UniqueConstraint(name = "uk_hotel_review_daily_stats_hotel_day", columnNames = {
+        "hotel_id", "review_date" }))
+public class HotelReviewDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hotel_id", nullable = false)
+    private Long hotelId;
+
+    @Column(name = "review_date", nullable = false)
+    private LocalDate reviewDate;
+
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount = 0L;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    public HotelReviewDailyStats() {
+    }
+
+    public HotelReviewDailyStats(Long hotelId, LocalDate reviewDate, Long reviewCount, Long ratingSum) {
+        this.hotelId = hotelId;
+        this.reviewDate = reviewDate;
+        this.reviewCount = reviewCount;
+        this.ratingSum = ratingSum;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    public LocalDate getReviewDate() {
+        return reviewDate;
+    }
+
+    public void setReviewDate(LocalDate reviewDate) {
+        this.reviewDate = reviewDate;
+    }
+
+    public Long getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(Long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public Long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(Long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+}
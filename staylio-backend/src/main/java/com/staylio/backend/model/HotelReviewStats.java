@@ -0,0 +1,65 @@
+package com.staylio.backend.model;
+
+import jakarta.persistence.*;
+
+// Review histogram of a hotel: one row per star rating (1-5) with the number of
+// reviews that gave it. Kept up to date by ReviewStatsService as reviews are added.
+@Entity
+@Table(name = "hotel_review_stats", uniqueConstraints = @UniqueConstraint(name = "uk_hotel_review_stats_hotel_rating", columnNames = {
+        "hotel_id", "rating" }))
+public class HotelReviewStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hotel_id", nullable = false)
+    private Long hotelId;
+
+    @Column(nullable = false)
+    private Integer rating;
+
+    @Column(name = "review_count", nullable = false)
+    private Long reviewCount = 0L;
+
+    public HotelReviewStats() {
+    }
+
+    public HotelReviewStats(Long hotelId, Integer rating, Long reviewCount) {
+        this.hotelId = hotelId;
+        this.rating = rating;
+        this.reviewCount = reviewCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    public Long getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(Long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+}
@@ -0,0 +1,53 @@
+package com.staylio.backend.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One posting of the wallet ledger. Every wallet transaction is posted as two entries
+// that sum to zero (debit: negative, credit: positive), and entries are never updated
+// or deleted: a wallet's balance is the sum of its entries.
+@Entity
+@Table(name = "wallet_ledger_entries", indexes = {
+        @Index(name = "idx_ledger_entries_wallet_id", columnList = "wallet_id, id"),
+        @Index(name = "idx_ledger_entries_transaction", columnList = "transaction_id")
+})
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The wallet_transactions row this posting belongs to
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTransactionId() {
+        return transactionId;
+    }
+
+    public Long getWalletId() {
+        return walletId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
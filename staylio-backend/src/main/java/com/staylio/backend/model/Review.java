@@ -1,10 +1,13 @@
 package com.staylio.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_hotel_created", columnList = "hotel_id, created_at")
+})
 public class Review {
 
     @Id
@@ -17,7 +20,9 @@ public class Review {
     @Column(name = "user_id", nullable = false)
     private Long userId;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Not serialized: the feed reads reviewer names through ReviewDTO
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private User user;
 
@@ -1,10 +1,14 @@
 package com.staylio.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "rooms")
 public class Room {
 
@@ -45,6 +49,7 @@ public class Room {
     @Column(name = "available_count", nullable = false)
     private Integer availableCount = 1;
 
+    // Rooms of this type per night; nightly bookings are tracked in room_inventory
     @Column(name = "room_count", nullable = false)
     private Integer roomCount = 0;
 
@@ -0,0 +1,81 @@
+package com.staylio.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+// One row per (room type, night). A booking reserves every night of its stay
+// with a single conditional UPDATE, so concurrent bookings only contend on the
+// nights they actually share instead of on the rooms row.
+@Entity
+@Table(name = "room_inventory", uniqueConstraints = @UniqueConstraint(name = "uk_room_inventory_room_night", columnNames = {
+        "room_id", "stay_date" }))
+public class RoomInventory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "stay_date", nullable = false)
+    private LocalDate stayDate;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(name = "booked_count", nullable = false)
+    private Integer bookedCount = 0;
+
+    // Constructors
+    public RoomInventory() {
+    }
+
+    public RoomInventory(Long roomId, LocalDate stayDate, Integer capacity) {
+        this.roomId = roomId;
+        this.stayDate = stayDate;
+        this.capacity = capacity;
+        this.bookedCount = 0;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public LocalDate getStayDate() {
+        return stayDate;
+    }
+
+    public void setStayDate(LocalDate stayDate) {
+        this.stayDate = stayDate;
+    }
+
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public Integer getBookedCount() {
+        return bookedCount;
+    }
+
+    public void setBookedCount(Integer bookedCount) {
+        this.bookedCount = bookedCount;
+    }
+}
@@ -5,11 +5,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "wallets")
+@Table(name = "wallets", uniqueConstraints = @UniqueConstraint(name = "uk_wallets_owner", columnNames = {
+        "owner_type", "owner_id" }))
 public class Wallet {
 
     public enum OwnerType {
-        ADMIN, USER, HOST
+        ADMIN, USER, HOST,
+        // Counterparty for money entering the platform (payment gateway, opening balances)
+        SYSTEM
     }
 
     @Id
@@ -20,10 +23,13 @@ public class Wallet {
     @Column(name = "owner_type", nullable = false)
     private OwnerType ownerType;
 
+    // User or host id; ADMIN and SYSTEM wallets use WalletService.PLATFORM_OWNER_ID
     @Column(name = "owner_id")
     private Long ownerId;
 
-    @Column(nullable = false, precision = 12, scale = 2)
+    // Balance before the wallet ledger existed, carried into it as an opening entry and
+    // not maintained since. WalletService fills in the ledger balance when returning a wallet.
+    @Column(nullable = false, precision = 12, scale = 2, updatable = false)
     private BigDecimal balance;
 
     @Column(name = "created_at")
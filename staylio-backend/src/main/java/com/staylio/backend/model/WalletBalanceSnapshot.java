@@ -0,0 +1,66 @@
+package com.staylio.backend.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Balance of a wallet over its ledger entries up to last_entry_id, so reading the
+// balance only has to add up the entries written since.
+@Entity
+@Table(name = "wallet_balance_snapshots")
+public class WalletBalanceSnapshot {
+
+    @Id
+    @Column(name = "wallet_id")
+    private Long walletId;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    public WalletBalanceSnapshot() {
+    }
+
+    public WalletBalanceSnapshot(Long walletId) {
+        this.walletId = walletId;
+        this.lastEntryId = 0L;
+        this.balance = BigDecimal.ZERO;
+    }
+
+    public Long getWalletId() {
+        return walletId;
+    }
+
+    public void setWalletId(Long walletId) {
+        this.walletId = walletId;
+    }
+
+    public Long getLastEntryId() {
+        return lastEntryId;
+    }
+
+    public void setLastEntryId(Long lastEntryId) {
+        this.lastEntryId = lastEntryId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public void setTakenAt(LocalDateTime takenAt) {
+        this.takenAt = takenAt;
+    }
+}
@@ -5,11 +5,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "wallet_transactions")
+@Table(name = "wallet_transactions", indexes = {
+        @Index(name = "idx_wallet_transactions_from_created", columnList = "from_wallet_id, created_at"),
+        @Index(name = "idx_wallet_transactions_to_created", columnList = "to_wallet_id, created_at")
+})
 public class WalletTransaction {
 
     public enum TransactionType {
-        USER_PAYMENT, ADMIN_HOLD, USER_REFUND, HOST_SETTLEMENT, ADMIN_DEBIT, ADMIN_CREDIT
+        USER_PAYMENT, ADMIN_HOLD, USER_REFUND, HOST_SETTLEMENT, ADMIN_DEBIT, ADMIN_CREDIT, OPENING_BALANCE
     }
 
     @Id
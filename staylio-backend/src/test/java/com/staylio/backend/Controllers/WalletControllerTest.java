@@ -0,0 +1,35 @@
+package com.staylio.backend.Controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.mvc.async.request-timeout=1ms")
+@ActiveProfiles("test")
+class WalletControllerTest {
+
+	@LocalServerPort
+	private int port;
+
+	@Test
+	void exportIsNotCutOffByTheGlobalAsyncTimeout() throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/wallet/transactions/export")).build();
+
+		HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+
+		assertEquals(200, response.statusCode());
+		assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/csv"));
+		assertTrue(response.body().startsWith("id,created_at,type,from_wallet_id,to_wallet_id,booking_id,amount,description\n"));
+	}
+}
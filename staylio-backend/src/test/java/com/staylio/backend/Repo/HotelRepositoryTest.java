@@ -0,0 +1,69 @@
+package com.staylio.backend.Repo;
+
+import com.staylio.backend.Service.HotelService;
+import com.staylio.backend.model.Hotel;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HotelRepositoryTest {
+
+	@Autowired
+	private HotelRepository hotelRepository;
+
+	@Autowired
+	private HotelService hotelService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void unclaimedHotelsFoundByFullTextLoadAsEntities() {
+		// MATCH ... AGAINST is MySQL syntax; H2 cannot parse it
+		assumeTrue(isMySql(), "full-text search needs MySQL");
+		insertHotel(8401, "Lakeview Residency", "https://img.test/lake.jpg,https://img.test/lobby.jpg");
+
+		List<Long> ids = hotelRepository.searchUnclaimedHotelIds("+lakeview*");
+		List<Hotel> hotels = hotelService.searchUnclaimedHotels("lakeview");
+
+		assertEquals(List.of(8401L), ids);
+		assertEquals(List.of(8401L), hotels.stream().map(Hotel::getId).toList());
+		assertEquals("https://img.test/lake.jpg", hotels.get(0).getCoverImageUrl());
+	}
+
+	@Test
+	void unclaimedHotelsLoadedByIdKeepTheirCoverImage() {
+		insertHotel(8402, "Harbour Inn", "https://img.test/harbour.jpg,https://img.test/room.jpg");
+
+		List<Hotel> hotels = hotelRepository.findAllById(List.of(8402L));
+
+		assertEquals(1, hotels.size());
+		assertEquals("https://img.test/harbour.jpg", hotels.get(0).getCoverImageUrl());
+	}
+
+	private boolean isMySql() {
+		String product = jdbcTemplate.execute((Connection connection) -> {
+			DatabaseMetaData metaData = connection.getMetaData();
+			return metaData.getDatabaseProductName();
+		});
+		return "MySQL".equalsIgnoreCase(product);
+	}
+
+	private void insertHotel(long hotelId, String name, String photoUrls) {
+		jdbcTemplate.update("INSERT INTO hotels (id, host_id, name, address, city, state, country, latitude, longitude, " +
+				"price_per_night, total_rooms, available_rooms, bedrooms, bathrooms, max_guests, rating, review_count, " +
+				"is_active, all_photo_urls) VALUES (?, 1, ?, '1 Main St', 'Pune', 'MH', 'India', 18.5, 73.8, 100, 5, 5, " +
+				"1, 1, 2, 0, 0, TRUE, ?)", hotelId, name, photoUrls);
+	}
+}
@@ -0,0 +1,68 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.BookingRepository;
+import com.staylio.backend.model.Booking;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingBatchServiceTest {
+
+	@Autowired
+	private BookingBatchService bookingBatchService;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void paidBookingTheAdminWalletCannotSettleStaysConfirmed() {
+		jdbcTemplate.update("INSERT INTO hotels (id, host_id, name, address, city, state, country, latitude, longitude, " +
+				"price_per_night, total_rooms, available_rooms, bedrooms, bathrooms, max_guests, rating, review_count, " +
+				"is_active) VALUES (8001, 1, 'Test Hotel', '1 Main St', 'Pune', 'MH', 'India', 18.5, 73.8, 100, 5, 5, 1, 1, " +
+				"2, 0, 0, TRUE)");
+		// The admin wallet holds nothing, so the paid stay cannot be settled yet
+		Long paid = finishedStay("SUCCESS");
+		Long payAtHotel = finishedStay("PENDING");
+
+		bookingBatchService.autoCompleteFinishedBookings(0, 1);
+
+		assertEquals(Booking.BookingStatus.CONFIRMED, bookingRepository.findById(paid).orElseThrow().getStatus());
+		assertEquals(Booking.BookingStatus.COMPLETED, bookingRepository.findById(payAtHotel).orElseThrow().getStatus());
+	}
+
+	@Test
+	void paidBookingOfADeletedHotelIsCompletedWithoutSettlement() {
+		// Hotel 8002 was deleted after the booking was paid
+		Long paid = finishedStay(8002L, "SUCCESS");
+
+		bookingBatchService.autoCompleteFinishedBookings(0, 1);
+
+		assertEquals(Booking.BookingStatus.COMPLETED, bookingRepository.findById(paid).orElseThrow().getStatus());
+	}
+
+	private Long finishedStay(String paymentStatus) {
+		return finishedStay(8001L, paymentStatus);
+	}
+
+	private Long finishedStay(Long hotelId, String paymentStatus) {
+		LocalDate checkOut = LocalDate.now().minusDays(1);
+		Booking booking = new Booking(null, hotelId, "Guest", "guest@example.com", "9999999999", checkOut.minusDays(2),
+				checkOut, 2, 1, null, new BigDecimal("100.00"), 2, new BigDecimal("220.00"));
+		booking.setStatus(Booking.BookingStatus.CONFIRMED);
+		booking.setPaymentStatus(paymentStatus);
+		booking.setInventoryReserved(false);
+		return bookingRepository.save(booking).getId();
+	}
+}
@@ -0,0 +1,75 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.BookingRepository;
+import com.staylio.backend.Repo.BookingTransitionRepository;
+import com.staylio.backend.model.Booking;
+import com.staylio.backend.model.BookingTransition;
+import com.staylio.backend.model.BookingTransition.TransitionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingLifecycleServiceTest {
+
+	@Autowired
+	private BookingLifecycleService bookingLifecycleService;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private BookingTransitionRepository bookingTransitionRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void failingBookingIsPostponedWithoutHoldingUpTheOthers() {
+		jdbcTemplate.update("INSERT INTO hotels (id, host_id, name, address, city, state, country, latitude, longitude, " +
+				"price_per_night, total_rooms, available_rooms, bedrooms, bathrooms, max_guests, rating, review_count, " +
+				"is_active) VALUES (8101, 1, 'Test Hotel', '1 Main St', 'Pune', 'MH', 'India', 18.5, 73.8, 100, 5, 5, 1, 1, " +
+				"2, 0, 0, TRUE)");
+		Long healthy = finishedStay();
+		Long broken = finishedStay();
+		// The database refuses to complete one of the two bookings
+		jdbcTemplate.execute("ALTER TABLE bookings ADD CONSTRAINT chk_lifecycle_test CHECK (id <> " + broken
+				+ " OR status <> 'COMPLETED')");
+		try {
+			LocalDateTime due = LocalDateTime.now().minusMinutes(5);
+			Long brokenTransition = bookingTransitionRepository
+					.save(new BookingTransition(broken, TransitionType.AUTO_COMPLETE, due)).getId();
+			bookingTransitionRepository.save(new BookingTransition(healthy, TransitionType.AUTO_COMPLETE, due));
+
+			bookingLifecycleService.processDue();
+
+			assertEquals(Booking.BookingStatus.COMPLETED, bookingRepository.findById(healthy).orElseThrow().getStatus());
+			assertEquals(Booking.BookingStatus.CONFIRMED, bookingRepository.findById(broken).orElseThrow().getStatus());
+			BookingTransition retry = bookingTransitionRepository.findById(brokenTransition).orElseThrow();
+			assertEquals(1, retry.getAttempts());
+			assertTrue(retry.getDueAt().isAfter(LocalDateTime.now()));
+		} finally {
+			jdbcTemplate.execute("ALTER TABLE bookings DROP CONSTRAINT chk_lifecycle_test");
+		}
+	}
+
+	private Long finishedStay() {
+		LocalDate checkOut = LocalDate.now().minusDays(1);
+		Booking booking = new Booking(null, 8101L, "Guest", "guest@example.com", "9999999999", checkOut.minusDays(2),
+				checkOut, 2, 1, null, new BigDecimal("100.00"), 2, new BigDecimal("220.00"));
+		booking.setStatus(Booking.BookingStatus.CONFIRMED);
+		booking.setPaymentStatus("PENDING");
+		booking.setInventoryReserved(false);
+		return bookingRepository.save(booking).getId();
+	}
+}
@@ -0,0 +1,82 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.dto.ChatbotRequest;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ChatbotServiceTest {
+
+	// An agent that sends its headers at once and then stalls halfway through the body
+	private static final HttpServer agent = stallingAgent();
+
+	@Autowired
+	private ChatbotService chatbotService;
+
+	@DynamicPropertySource
+	static void agentProperties(DynamicPropertyRegistry registry) {
+		registry.add("ai.agent.url", () -> "http://localhost:" + agent.getAddress().getPort() + "/agent/query");
+		registry.add("ai.agent.timeout", () -> "1s");
+	}
+
+	@AfterAll
+	static void stopAgent() {
+		agent.stop(0);
+	}
+
+	@Test
+	void stalledReplyTimesOutWithGatewayTimeout() {
+		long startedAt = System.currentTimeMillis();
+
+		CompletionException error = assertThrows(CompletionException.class,
+				() -> chatbotService.processQuery(new ChatbotRequest()).join());
+
+		ResponseStatusException status = assertInstanceOf(ResponseStatusException.class, error.getCause());
+		assertEquals(HttpStatus.GATEWAY_TIMEOUT, status.getStatusCode());
+		assertTrue(System.currentTimeMillis() - startedAt < 10_000);
+	}
+
+	private static HttpServer stallingAgent() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.createContext("/agent/query", exchange -> {
+				exchange.sendResponseHeaders(200, 100);
+				OutputStream body = exchange.getResponseBody();
+				body.write("{\"response\":".getBytes());
+				body.flush();
+				try {
+					Thread.sleep(5_000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				exchange.close();
+			});
+			server.setExecutor(Executors.newCachedThreadPool());
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
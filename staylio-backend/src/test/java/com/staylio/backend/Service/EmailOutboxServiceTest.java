@@ -0,0 +1,111 @@
+package com.staylio.backend.Service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.staylio.backend.Repo.EmailOutboxRepository;
+import com.staylio.backend.model.EmailOutbox;
+import com.staylio.backend.model.EmailOutbox.OutboxStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Delivers through a local GreenMail SMTP server
+@SpringBootTest(properties = {
+		"spring.mail.host=localhost",
+		"spring.mail.port=3025",
+		"spring.mail.username=",
+		"spring.mail.password=",
+		"spring.mail.properties.mail.smtp.auth=false",
+		"spring.mail.properties.mail.smtp.starttls.enable=false",
+		"spring.mail.properties.mail.smtp.starttls.required=false"
+})
+@ActiveProfiles("test")
+class EmailOutboxServiceTest {
+
+	@RegisterExtension
+	static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	@Autowired
+	private EmailOutboxService emailOutboxService;
+
+	@Autowired
+	private EmailOutboxRepository emailOutboxRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void deliversQueuedMailAndMarksItSent() throws Exception {
+		EmailOutbox email = emailOutboxService.enqueue("guest@delivered.test", "Booking confirmed",
+				"<p>See you soon</p>", "See you soon");
+
+		assertTrue(greenMail.waitForIncomingEmail(10_000, 1));
+		MimeMessage received = greenMail.getReceivedMessages()[0];
+		assertEquals("Booking confirmed", received.getSubject());
+		assertEquals("guest@delivered.test", received.getAllRecipients()[0].toString());
+		await(() -> statusOf(email.getId()) == OutboxStatus.SENT);
+	}
+
+	@Test
+	void throttledMailIsSentLaterWithoutUsingAnAttempt() throws Exception {
+		// More than the per-domain budget of 60 a minute, queued faster than it refills
+		double throttledBefore = meterRegistry.counter("email.outbox.throttled").count();
+		List<EmailOutbox> emails = new ArrayList<>();
+		for (int i = 0; i < 70; i++) {
+			emails.add(emailOutboxService.enqueue("guest" + i + "@throttled.test", "Hello " + i, null, "Hi"));
+		}
+
+		assertTrue(greenMail.waitForIncomingEmail(60_000, 70));
+		await(() -> emails.stream().allMatch(email -> statusOf(email.getId()) == OutboxStatus.SENT));
+		assertTrue(meterRegistry.counter("email.outbox.throttled").count() > throttledBefore);
+		assertTrue(emails.stream()
+				.allMatch(email -> emailOutboxRepository.findById(email.getId()).orElseThrow().getAttempts() == 0));
+		assertEquals(70, greenMail.getReceivedMessages().length);
+	}
+
+	@Test
+	void outcomeIsOnlyRecordedUnderTheCurrentClaim() {
+		EmailOutbox email = new EmailOutbox("guest@reclaimed.test", "Hello", "Hi", false);
+		email.setNextAttemptAt(LocalDateTime.now().plusHours(1));
+		Long id = emailOutboxRepository.save(email).getId();
+		LocalDateTime due = LocalDateTime.now().plusHours(2);
+
+		// The first worker's lease runs out and a second dispatcher claims the row
+		emailOutboxRepository.claim(id, EnumSet.of(OutboxStatus.PENDING), OutboxStatus.SENDING, due,
+				due.minusMinutes(30), "first");
+		emailOutboxRepository.claim(id, EnumSet.of(OutboxStatus.SENDING), OutboxStatus.SENDING, due,
+				due.plusMinutes(2), "second");
+
+		assertEquals(0, emailOutboxRepository.markSent(List.of(id), "first", OutboxStatus.SENDING,
+				OutboxStatus.SENT, LocalDateTime.now()));
+		assertEquals(OutboxStatus.SENDING, statusOf(id));
+		assertEquals(1, emailOutboxRepository.markSent(List.of(id), "second", OutboxStatus.SENDING,
+				OutboxStatus.SENT, LocalDateTime.now()));
+		assertEquals(OutboxStatus.SENT, statusOf(id));
+	}
+
+	private OutboxStatus statusOf(Long id) {
+		return emailOutboxRepository.findById(id).orElseThrow().getStatus();
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the outbox");
+			Thread.sleep(100);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.model.HotelImage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HotelImageServiceTest {
+
+	@Autowired
+	private HotelImageService hotelImageService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void hotelImportedAfterStartupGetsItsLegacyPhotosOnFirstRead() {
+		// Written straight to the database, as fetch_hotels.py does
+		insertHotel(8301, "https://img.test/a.jpg, https://img.test/b.jpg");
+		insertHotel(8302, "https://img.test/ignored.jpg");
+		jdbcTemplate.update("INSERT INTO hotels_image (hotel_id, photos_urls) VALUES (8302, 'https://img.test/large.jpg')");
+
+		Map<Long, List<String>> photos = hotelImageService.getHotelImages(List.of(8301L, 8302L));
+
+		assertEquals(List.of("https://img.test/a.jpg", "https://img.test/b.jpg"), photos.get(8301L));
+		assertEquals(List.of("https://img.test/large.jpg"), photos.get(8302L));
+		assertEquals(List.of("https://img.test/a.jpg", "https://img.test/b.jpg"), jdbcTemplate.queryForList(
+				"SELECT url FROM hotel_image WHERE hotel_id = 8301 ORDER BY position", String.class));
+		assertEquals(1, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM hotel_image WHERE hotel_id = 8302", Integer.class));
+		// Indexed lookup used to record dimensions of resized originals
+		assertEquals(8301L, jdbcTemplate.queryForObject("SELECT hotel_id FROM hotel_image WHERE url_hash = ?",
+				Long.class, HotelImage.hashOf("https://img.test/b.jpg")));
+	}
+
+	private void insertHotel(long hotelId, String photoUrls) {
+		jdbcTemplate.update("INSERT INTO hotels (id, host_id, name, address, city, state, country, latitude, longitude, " +
+				"price_per_night, total_rooms, available_rooms, bedrooms, bathrooms, max_guests, rating, review_count, " +
+				"is_active, all_photo_urls) VALUES (?, 1, 'Imported Hotel', '1 Main St', 'Pune', 'MH', 'India', 18.5, " +
+				"73.8, 100, 5, 5, 1, 1, 2, 0, 0, TRUE, ?)", hotelId, photoUrls);
+	}
+}
@@ -0,0 +1,54 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.dto.HotelSuggestionDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HotelSuggestServiceTest {
+
+	@Autowired
+	private HotelSuggestService hotelSuggestService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void prefixesLongerThanTheIndexedDepthAreFilteredFromTheDeepestNode() {
+		insertHotel(8501, "Maharashtrapalace Grand Residency", 5);
+		insertHotel(8502, "Maharashtrapalace Garden Suites", 50);
+		hotelSuggestService.rebuild();
+
+		assertEquals(List.of("Maharashtrapalace Garden Suites", "Maharashtrapalace Grand Residency"),
+				texts(hotelSuggestService.suggest("maharashtrapalac", 10)));
+		assertEquals(List.of("Maharashtrapalace Grand Residency"),
+				texts(hotelSuggestService.suggest("Maharashtrapalace Gr", 10)));
+		assertEquals(List.of("Maharashtrapalace Garden Suites"),
+				texts(hotelSuggestService.suggest("maharashtrapalace garden s", 10)));
+		// A later word is still found from its own start
+		assertEquals(List.of("Maharashtrapalace Grand Residency"),
+				texts(hotelSuggestService.suggest("grand resid", 10)));
+	}
+
+	private static List<String> texts(List<HotelSuggestionDTO> suggestions) {
+		return suggestions.stream()
+				.filter(suggestion -> "HOTEL".equals(suggestion.getType()))
+				.map(HotelSuggestionDTO::getText)
+				.toList();
+	}
+
+	private void insertHotel(long hotelId, String name, int reviewCount) {
+		jdbcTemplate.update("INSERT INTO hotels (id, host_id, name, address, city, state, country, latitude, longitude, " +
+				"price_per_night, total_rooms, available_rooms, bedrooms, bathrooms, max_guests, rating, review_count, " +
+				"is_active) VALUES (?, 1, ?, '1 Main St', 'Pune', 'MH', 'India', 18.5, 73.8, 100, 5, 5, 1, 1, 2, 4, ?, " +
+				"TRUE)", hotelId, name, reviewCount);
+	}
+}
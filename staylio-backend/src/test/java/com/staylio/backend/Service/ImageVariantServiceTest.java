@@ -0,0 +1,58 @@
+package com.staylio.backend.Service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImageVariantServiceTest {
+
+	private static final String KEY = "test-image-signing-key-0123456789abcdef";
+
+	private final ImageVariants imageVariants = new ImageVariants(KEY, "", List.of("bstatic.com"));
+
+	@Test
+	void startupFailsWithoutASigningKey() {
+		assertThrows(IllegalStateException.class, () -> new ImageVariants("", "", List.of("bstatic.com")));
+		assertThrows(IllegalStateException.class, () -> new ImageVariants("staylio-dev-image-key", "", List.of()));
+	}
+
+	@Test
+	void onlyPhotosOnAllowedHostsGetVariants() {
+		String token = imageVariants.token("https://cf.bstatic.com/xdata/images/hotel/1.jpg");
+		assertNotNull(token);
+		assertEquals("https://cf.bstatic.com/xdata/images/hotel/1.jpg", imageVariants.verify(token));
+
+		assertNull(imageVariants.srcset("http://169.254.169.254/latest/meta-data/"));
+		assertNull(imageVariants.srcset("https://bstatic.com.attacker.test/1.jpg"));
+		assertNull(imageVariants.srcset("https://cf.bstatic.com:8443/1.jpg"));
+		assertNull(imageVariants.srcset("https://user@cf.bstatic.com/1.jpg"));
+		assertNull(imageVariants.srcset("file:///etc/passwd"));
+		// Signed with another key
+		String forged = new ImageVariants("another-image-signing-key-0123456789", "", List.of("bstatic.com"))
+				.token("https://cf.bstatic.com/xdata/images/hotel/1.jpg");
+		assertNull(imageVariants.verify(forged));
+	}
+
+	@Test
+	void oversizedOriginalIsRejectedBeforeDecoding() throws IOException {
+		// 30 megapixels, but only a few kilobytes as a PNG
+		BufferedImage huge = new BufferedImage(6000, 5000, BufferedImage.TYPE_BYTE_BINARY);
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(huge, "png", png);
+
+		assertThrows(IllegalStateException.class, () -> ImageVariantService.decode(png.toByteArray()));
+
+		ByteArrayOutputStream small = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png", small);
+		assertEquals(40, ImageVariantService.decode(small.toByteArray()).getWidth());
+	}
+}
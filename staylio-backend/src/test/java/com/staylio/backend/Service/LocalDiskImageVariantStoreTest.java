@@ -0,0 +1,59 @@
+package com.staylio.backend.Service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LocalDiskImageVariantStoreTest {
+
+	@TempDir
+	Path cacheDir;
+
+	@Test
+	void leastRecentlyUsedPhotosAreEvictedOverTheLimit() throws IOException {
+		LocalDiskImageVariantStore store = new LocalDiskImageVariantStore(cacheDir.toString(), DataSize.ofBytes(3000));
+		store.save(key('a'), 320, new byte[1000]);
+		store.save(key('b'), 320, new byte[1000]);
+		store.save(key('c'), 320, new byte[900]);
+		age(key('a'), 3);
+		age(key('b'), 2);
+		age(key('c'), 2);
+		// Read recently, so it outlives b
+		store.find(key('a'), 320);
+
+		store.save(key('d'), 320, new byte[1000]);
+
+		assertNotNull(store.find(key('a'), 320));
+		assertNull(store.find(key('b'), 320));
+		assertNotNull(store.find(key('d'), 320));
+	}
+
+	@Test
+	void existingCacheCountsTowardsTheLimit() throws IOException {
+		new LocalDiskImageVariantStore(cacheDir.toString(), DataSize.ofBytes(3000)).save(key('a'), 320, new byte[2500]);
+		age(key('a'), 3);
+
+		LocalDiskImageVariantStore restarted = new LocalDiskImageVariantStore(cacheDir.toString(), DataSize.ofBytes(3000));
+		restarted.save(key('b'), 320, new byte[1000]);
+
+		assertNull(restarted.find(key('a'), 320));
+		assertNotNull(restarted.find(key('b'), 320));
+	}
+
+	private void age(String key, int hours) throws IOException {
+		Path directory = cacheDir.resolve(key.substring(0, 2)).resolve(key);
+		Files.setLastModifiedTime(directory, FileTime.fromMillis(System.currentTimeMillis() - hours * 3_600_000L));
+	}
+
+	private static String key(char c) {
+		return String.valueOf(c).repeat(64);
+	}
+}
@@ -0,0 +1,116 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.BookingRepository;
+import com.staylio.backend.Repo.HotelRepository;
+import com.staylio.backend.model.Booking;
+import com.staylio.backend.model.Hotel;
+import com.staylio.backend.model.Review;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReviewServiceTest {
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Autowired
+	private HotelRepository hotelRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void reconcileKeepsImportedTotalsOfHotelsWithoutReviews() {
+		// Imported with an outside review count and no totals of our own
+		insertImportedHotel(8201, 4.5, 120);
+
+		reviewService.reconcileHotelRatings();
+		reviewService.reconcileHotelRatings();
+
+		Map<String, Object> totals = totals(8201);
+		assertEquals(120, ((Number) totals.get("review_count")).intValue());
+		assertEquals(540L, ((Number) totals.get("rating_sum")).longValue());
+		assertEquals(4.5, ((Number) totals.get("rating")).doubleValue());
+	}
+
+	@Test
+	void reviewOfImportedHotelIsAddedToItsTotals() {
+		insertImportedHotel(8202, 3.0, 1);
+
+		addReview(8202, 5);
+		reviewService.reconcileHotelRatings();
+
+		Map<String, Object> totals = totals(8202);
+		assertEquals(2, ((Number) totals.get("review_count")).intValue());
+		assertEquals(8L, ((Number) totals.get("rating_sum")).longValue());
+		assertEquals(4.0, ((Number) totals.get("rating")).doubleValue());
+	}
+
+	@Test
+	void reviewOfHotelCreatedWithACountStartsFromItsRating() {
+		Hotel hotel = new Hotel();
+		hotel.setId(8203L);
+		hotel.setHostId(1L);
+		hotel.setName("Posted Hotel");
+		hotel.setAddress("2 Main St");
+		hotel.setCity("Pune");
+		hotel.setState("MH");
+		hotel.setCountry("India");
+		hotel.setLatitude(18.5);
+		hotel.setLongitude(73.8);
+		hotel.setPricePerNight(new BigDecimal("100.00"));
+		hotel.setTotalRooms(5);
+		hotel.setBedrooms(1);
+		hotel.setBathrooms(1);
+		hotel.setMaxGuests(2);
+		hotel.setRating(4.5);
+		hotel.setReviewCount(10);
+		long hotelId = hotelRepository.save(hotel).getId();
+
+		addReview(hotelId, 1);
+
+		Map<String, Object> totals = totals(hotelId);
+		assertEquals(11, ((Number) totals.get("review_count")).intValue());
+		assertEquals(46L, ((Number) totals.get("rating_sum")).longValue());
+		assertEquals(4.2, ((Number) totals.get("rating")).doubleValue());
+	}
+
+	private void insertImportedHotel(long hotelId, double rating, int reviewCount) {
+		jdbcTemplate.update("INSERT INTO hotels (id, host_id, name, address, city, state, country, latitude, longitude, " +
+				"price_per_night, total_rooms, available_rooms, bedrooms, bathrooms, max_guests, rating, review_count, " +
+				"is_active) VALUES (?, 1, 'Imported Hotel', '1 Main St', 'Pune', 'MH', 'India', 18.5, 73.8, 100, 5, 5, " +
+				"1, 1, 2, ?, ?, TRUE)", hotelId, rating, reviewCount);
+	}
+
+	private void addReview(long hotelId, int rating) {
+		long userId = 9000 + hotelId;
+		jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, email, password, phone) " +
+				"VALUES (?, 'Guest', 'User', ?, 'secret', '9999999999')", userId, "guest" + userId + "@example.com");
+		LocalDate checkOut = LocalDate.now().minusDays(1);
+		Booking stay = new Booking(userId, hotelId, "Guest", "guest@example.com", "9999999999", checkOut.minusDays(2),
+				checkOut, 2, 1, null, new BigDecimal("100.00"), 2, new BigDecimal("220.00"));
+		stay.setStatus(Booking.BookingStatus.COMPLETED);
+		stay.setInventoryReserved(false);
+		bookingRepository.save(stay);
+
+		reviewService.addReview(new Review(hotelId, userId, rating, "Stayed here"));
+	}
+
+	private Map<String, Object> totals(long hotelId) {
+		return jdbcTemplate.queryForMap("SELECT rating, review_count, rating_sum FROM hotels WHERE id = ?", hotelId);
+	}
+}
@@ -0,0 +1,167 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.Repo.BookingRepository;
+import com.staylio.backend.model.Booking;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomInventoryServiceTest {
+
+	private static final AtomicLong HOTEL_IDS = new AtomicLong(9000);
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private RoomInventoryService roomInventoryService;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final LocalDate checkIn = LocalDate.now().plusDays(10);
+	private final LocalDate checkOut = checkIn.plusDays(3);
+
+	@Test
+	void reserveBooksEveryNightAndRefusesWhenSoldOut() {
+		long hotelId = createHotelWithRooms(1);
+
+		Booking booking = bookingService.createBooking(newBooking(hotelId, checkIn, checkOut));
+
+		assertTrue(booking.getInventoryReserved());
+		assertEquals(List.of(1, 1, 1), bookedCounts(hotelId));
+		assertThrows(IllegalStateException.class,
+				() -> bookingService.createBooking(newBooking(hotelId, checkIn.plusDays(2), checkOut.plusDays(2))));
+		assertEquals(List.of(1, 1, 1), bookedCounts(hotelId));
+	}
+
+	@Test
+	void cancelReleasesNightsOnce() {
+		long hotelId = createHotelWithRooms(2);
+		Booking booking = bookingService.createBooking(newBooking(hotelId, checkIn, checkOut));
+		bookingService.createBooking(newBooking(hotelId, checkIn, checkOut));
+
+		bookingService.cancelBooking(booking.getId());
+		bookingService.updateBookingStatus(booking.getId(), Booking.BookingStatus.CANCELLED);
+
+		assertEquals(List.of(1, 1, 1), bookedCounts(hotelId));
+		assertFalse(bookingRepository.findById(booking.getId()).orElseThrow().getInventoryReserved());
+	}
+
+	@Test
+	void statusChangeAndDeleteRelease() {
+		long hotelId = createHotelWithRooms(1);
+		Booking cancelled = bookingService.createBooking(newBooking(hotelId, checkIn, checkOut));
+
+		bookingService.updateBookingStatus(cancelled.getId(), Booking.BookingStatus.CANCELLED);
+		assertEquals(List.of(0, 0, 0), bookedCounts(hotelId));
+
+		Booking update = new Booking();
+		update.setStatus(Booking.BookingStatus.PENDING);
+		bookingService.updateBooking(cancelled.getId(), update);
+		assertEquals(List.of(1, 1, 1), bookedCounts(hotelId));
+
+		bookingService.deleteBooking(cancelled.getId());
+		assertEquals(List.of(0, 0, 0), bookedCounts(hotelId));
+	}
+
+	@Test
+	void migrationRestoresRoomCountAndSeedsActiveStays() {
+		// Two rooms; the old counter had already taken one off for each legacy booking
+		// still standing (confirmed and completed), but not for the cancelled one
+		long hotelId = createHotelWithRooms(0);
+		long confirmed = insertLegacyBooking(hotelId, checkIn, checkOut, Booking.BookingStatus.CONFIRMED);
+		insertLegacyBooking(hotelId, checkIn.minusDays(30), checkIn.minusDays(28), Booking.BookingStatus.COMPLETED);
+		insertLegacyBooking(hotelId, checkIn, checkOut, Booking.BookingStatus.CANCELLED);
+
+		roomInventoryService.migrateLegacyBookings();
+		roomInventoryService.migrateLegacyBookings();
+
+		assertEquals(2, roomCount(hotelId));
+		assertEquals(List.of(1, 1, 1), bookedCounts(hotelId));
+		assertEquals(List.of(2, 2, 2), jdbcTemplate.queryForList(
+				"SELECT ri.capacity FROM room_inventory ri JOIN rooms r ON r.id = ri.room_id " +
+						"WHERE r.hotel_id = ? ORDER BY ri.stay_date", Integer.class, hotelId));
+
+		bookingService.cancelBooking(confirmed);
+		assertEquals(List.of(0, 0, 0), bookedCounts(hotelId));
+	}
+
+	@Test
+	void migrationRestoresRoomOfBookingsCancelledWithoutTheGuestCancelPath() {
+		long hotelId = createHotelWithRooms(0);
+		// Auto-cancelled the day after its check-in; the old counter never gave its room back
+		long autoCancelled = insertLegacyBooking(hotelId, LocalDate.now().minusDays(5), LocalDate.now().minusDays(3),
+				Booking.BookingStatus.CANCELLED);
+		jdbcTemplate.update("UPDATE bookings SET updated_at = ? WHERE id = ?",
+				LocalDate.now().minusDays(4).atTime(2, 0), autoCancelled);
+		// Cancelled by the guest ahead of check-in, which gave its room back at the time
+		insertLegacyBooking(hotelId, checkIn, checkOut, Booking.BookingStatus.CANCELLED);
+
+		roomInventoryService.migrateLegacyBookings();
+
+		assertEquals(1, roomCount(hotelId));
+	}
+
+	@Test
+	void cancellingUnmigratedBookingRestoresRoomCount() {
+		long hotelId = createHotelWithRooms(0);
+		long legacy = insertLegacyBooking(hotelId, checkIn, checkOut, Booking.BookingStatus.PENDING);
+
+		bookingService.cancelBooking(legacy);
+
+		assertEquals(1, roomCount(hotelId));
+		assertFalse(bookingRepository.findById(legacy).orElseThrow().getInventoryReserved());
+	}
+
+	private long createHotelWithRooms(int roomCount) {
+		long hotelId = HOTEL_IDS.incrementAndGet();
+		jdbcTemplate.update("INSERT INTO hotels (id, host_id, name, address, city, state, country, latitude, longitude, " +
+				"price_per_night, total_rooms, available_rooms, bedrooms, bathrooms, max_guests, rating, review_count, " +
+				"is_active) VALUES (?, 1, 'Test Hotel', '1 Main St', 'Pune', 'MH', 'India', 18.5, 73.8, 100, 5, 5, 1, 1, " +
+				"2, 0, 0, TRUE)", hotelId);
+		jdbcTemplate.update("INSERT INTO rooms (hotel_id, room_type, category, price_per_night, max_guests, image_url, " +
+				"is_active, available_count, room_count) VALUES (?, 'Deluxe', 'Standard', 100, 2, 'room.jpg', TRUE, 1, ?)",
+				hotelId, roomCount);
+		return hotelId;
+	}
+
+	private Booking newBooking(long hotelId, LocalDate from, LocalDate to) {
+		return new Booking(null, hotelId, "Guest", "guest@example.com", "9999999999", from, to, 2, 1,
+				"Deluxe", new BigDecimal("100.00"), null, null);
+	}
+
+	private long insertLegacyBooking(long hotelId, LocalDate from, LocalDate to, Booking.BookingStatus status) {
+		Booking booking = newBooking(hotelId, from, to);
+		booking.setTotalNights((int) (to.toEpochDay() - from.toEpochDay()));
+		booking.setTotalAmount(new BigDecimal("300.00"));
+		booking.setStatus(status);
+		return bookingRepository.save(booking).getId();
+	}
+
+	private List<Integer> bookedCounts(long hotelId) {
+		return jdbcTemplate.queryForList("SELECT ri.booked_count FROM room_inventory ri JOIN rooms r ON r.id = ri.room_id " +
+				"WHERE r.hotel_id = ? AND ri.stay_date >= ? ORDER BY ri.stay_date", Integer.class, hotelId, checkIn);
+	}
+
+	private int roomCount(long hotelId) {
+		return jdbcTemplate.queryForObject("SELECT room_count FROM rooms WHERE hotel_id = ?", Integer.class, hotelId);
+	}
+}
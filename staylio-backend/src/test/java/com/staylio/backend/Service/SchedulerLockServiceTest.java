@@ -0,0 +1,116 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.StaylioBackendApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two application contexts standing in for two instances of the backend, sharing one
+// H2 database in MySQL mode
+@SpringBootTest(properties = SchedulerLockServiceTest.SHARED_DATABASE)
+@ActiveProfiles("test")
+class SchedulerLockServiceTest {
+
+	static final String SHARED_DATABASE =
+			"spring.datasource.url=jdbc:h2:mem:scheduler-lock-test;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	private static ConfigurableApplicationContext otherInstance;
+
+	@Autowired
+	private SchedulerLockService schedulerLockService;
+
+	@AfterAll
+	static void closeOtherInstance() {
+		if (otherInstance != null) {
+			otherInstance.close();
+		}
+	}
+
+	@Test
+	void onlyOneInstanceRunsTheJobAtATime() throws Exception {
+		List<SchedulerLockService> instances = List.of(schedulerLockService, otherLockService());
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger runs = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService threads = Executors.newFixedThreadPool(4);
+
+		List<CompletableFuture<Boolean>> attempts = instances.stream()
+				.flatMap(instance -> Stream.of(instance, instance))
+				.map(instance -> CompletableFuture.supplyAsync(() -> {
+					awaitQuietly(start);
+					return instance.runLocked("lock-test-exclusive", Duration.ofMinutes(1), Duration.ZERO, () -> {
+						assertEquals(1, running.incrementAndGet());
+						runs.incrementAndGet();
+						sleepQuietly(500);
+						running.decrementAndGet();
+					});
+				}, threads))
+				.toList();
+		start.countDown();
+
+		long ran = attempts.stream().filter(attempt -> attempt.orTimeout(30, TimeUnit.SECONDS).join()).count();
+		assertEquals(1, ran);
+		assertEquals(1, runs.get());
+		threads.shutdown();
+
+		// Released without a minimum hold, so either instance can take it straight away
+		assertTrue(otherLockService().runLocked("lock-test-exclusive", Duration.ofMinutes(1), Duration.ZERO, () -> { }));
+		assertTrue(schedulerLockService.runLocked("lock-test-exclusive", Duration.ofMinutes(1), Duration.ZERO, () -> { }));
+	}
+
+	@Test
+	void lockIsKeptForTheMinimumAfterAQuickRun() throws Exception {
+		assertTrue(schedulerLockService.runLocked("lock-test-minimum", Duration.ofMinutes(1), Duration.ofSeconds(2), () -> { }));
+
+		assertFalse(otherLockService().runLocked("lock-test-minimum", Duration.ofMinutes(1), Duration.ZERO, () -> { }));
+		Thread.sleep(2_500);
+		assertTrue(otherLockService().runLocked("lock-test-minimum", Duration.ofMinutes(1), Duration.ZERO, () -> { }));
+	}
+
+	// Started after this context has created the schema, so it only reuses the tables.
+	// Passed as arguments so they win over application-test.properties.
+	private static synchronized SchedulerLockService otherLockService() {
+		if (otherInstance == null) {
+			otherInstance = new SpringApplicationBuilder(StaylioBackendApplication.class)
+					.profiles("test")
+					.web(WebApplicationType.NONE)
+					.run("--" + SHARED_DATABASE, "--spring.jpa.hibernate.ddl-auto=none");
+		}
+		return otherInstance.getBean(SchedulerLockService.class);
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleepQuietly(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
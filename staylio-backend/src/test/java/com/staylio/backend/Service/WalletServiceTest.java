@@ -0,0 +1,65 @@
+package com.staylio.backend.Service;
+
+import com.staylio.backend.model.Wallet;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WalletServiceTest {
+
+	@Autowired
+	private WalletService walletService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void platformWalletsStaySingleUnderConcurrentUse() {
+		ExecutorService threads = Executors.newFixedThreadPool(8);
+		try {
+			List<CompletableFuture<Long>> lookups = IntStream.range(0, 16)
+					.mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+						walletService.ensurePlatformWallets();
+						return walletService.getOrCreateAdminWallet().getId();
+					}, threads))
+					.toList();
+
+			assertEquals(1, lookups.stream().map(CompletableFuture::join).distinct().count());
+			assertEquals(1, jdbcTemplate.queryForObject(
+					"SELECT COUNT(*) FROM wallets WHERE owner_type = 'ADMIN'", Integer.class));
+			assertEquals(1, jdbcTemplate.queryForObject(
+					"SELECT COUNT(*) FROM wallets WHERE owner_type = 'SYSTEM'", Integer.class));
+		} finally {
+			threads.shutdown();
+		}
+	}
+
+	@Test
+	void openingBalanceIsPostedForWalletPaidIntoBeforeTheMigration() {
+		// A wallet from before the ledger, refunded into before its opening balance was posted
+		jdbcTemplate.update("INSERT INTO wallets (owner_type, owner_id, balance, created_at, updated_at) " +
+				"VALUES ('USER', 7001, 50.00, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+		walletService.processOnlinePayment(7002L, new BigDecimal("10.00"), null);
+		walletService.processRefund(7001L, new BigDecimal("10.00"), null);
+
+		walletService.postOpeningBalances();
+		walletService.postOpeningBalances();
+
+		assertEquals(0, new BigDecimal("60.00").compareTo(walletService.getOrCreateUserWallet(7001L).getBalance()));
+		Wallet admin = walletService.getOrCreateAdminWallet();
+		assertEquals(0, admin.getBalance().signum());
+	}
+}
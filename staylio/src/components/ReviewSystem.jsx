@@ -2,6 +2,9 @@ import React, { useState } from 'react';
 
 const ReviewSystem = ({
     reviews = [],
+    hasMore = false,
+    onLoadMore,
+    loadingMore = false,
     onSubmitReview,
     isAuthenticated = false,
     title = "Reviews",
@@ -30,7 +33,7 @@ const ReviewSystem = ({
 
     return (
         <div className="bg-white/5 backdrop-blur-sm rounded-xl p-6 border border-white/10">
-            <h2 className="text-2xl font-bold text-white mb-6">{title} ({reviews.length})</h2>
+            <h2 className="text-2xl font-bold text-white mb-6">{title} ({reviews.length}{hasMore ? '+' : ''})</h2>
 
             {/* Reviews List */}
             <div className="space-y-6 mb-8">
@@ -60,6 +63,16 @@ const ReviewSystem = ({
                         </div>
                     ))
                 )}
+                {hasMore && (
+                    <button
+                        type="button"
+                        onClick={onLoadMore}
+                        disabled={loadingMore}
+                        className="w-full py-2 text-sm font-medium text-gray-300 bg-white/5 border border-white/10 rounded-lg hover:bg-white/10 transition-all disabled:opacity-50 disabled:cursor-not-allowed"
+                    >
+                        {loadingMore ? 'Loading...' : 'Show more reviews'}
+                    </button>
+                )}
             </div>
 
             {/* Review Form */}
@@ -73,6 +73,8 @@ const HotelDetailPage = () => {
     const [hotel, setHotel] = useState(null);
     const [hotelImages, setHotelImages] = useState([]);
     const [reviews, setReviews] = useState([]);
+    const [reviewsCursor, setReviewsCursor] = useState(null);
+    const [loadingMoreReviews, setLoadingMoreReviews] = useState(false);
     const [rooms, setRooms] = useState([]);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState(null);
@@ -118,11 +120,13 @@ const HotelDetailPage = () => {
 
                 // Fetch reviews
                 try {
-                    const reviewsData = await hotelService.getHotelReviews(id);
-                    setReviews(reviewsData || []);
+                    const reviewsPage = await hotelService.getHotelReviews(id);
+                    setReviews(reviewsPage?.content || []);
+                    setReviewsCursor(reviewsPage?.hasNext ? reviewsPage.nextCursor : null);
                 } catch (reviewError) {
                     console.error('Error fetching reviews:', reviewError);
                     setReviews([]);
+                    setReviewsCursor(null);
                 }
             } catch (err) {
                 setError('Failed to load hotel details');
@@ -175,6 +179,19 @@ const HotelDetailPage = () => {
         checkEligibility();
     }, [id, isAuthenticated, user]);
 
+    const loadMoreReviews = async () => {
+        try {
+            setLoadingMoreReviews(true);
+            const reviewsPage = await hotelService.getHotelReviews(id, reviewsCursor);
+            setReviews(prev => [...prev, ...(reviewsPage?.content || [])]);
+            setReviewsCursor(reviewsPage?.hasNext ? reviewsPage.nextCursor : null);
+        } catch (error) {
+            console.error('Error fetching more reviews:', error);
+        } finally {
+            setLoadingMoreReviews(false);
+        }
+    };
+
     const handleReviewSubmit = async (reviewData) => {
         try {
             const newReview = await hotelService.addHotelReview({
@@ -482,6 +499,9 @@ const HotelDetailPage = () => {
                     )}
                     <ReviewSystem
                         reviews={reviews}
+                        hasMore={!!reviewsCursor}
+                        onLoadMore={loadMoreReviews}
+                        loadingMore={loadingMoreReviews}
                         onSubmitReview={handleReviewSubmit}
                         isAuthenticated={isAuthenticated}
                         title={`Reviews for ${hotel.name}`}
@@ -16,7 +16,10 @@ const WalletPage = () => {
     const { user } = useAuth();
     const [wallet, setWallet] = useState(null);
     const [transactions, setTransactions] = useState([]);
+    const [totals, setTotals] = useState({});
+    const [nextCursor, setNextCursor] = useState(null);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
 
     useEffect(() => {
         if (user?.id) {
@@ -29,7 +32,9 @@ const WalletPage = () => {
             setLoading(true);
             const response = await walletService.getUserWallet(user.id);
             setWallet(response.data.wallet);
-            setTransactions(response.data.transactions);
+            setTransactions(response.data.transactions || []);
+            setTotals(response.data.totals || {});
+            setNextCursor(response.data.hasNext ? response.data.nextCursor : null);
         } catch (error) {
             console.error("Error fetching wallet data:", error);
         } finally {
@@ -37,6 +42,19 @@ const WalletPage = () => {
         }
     };
 
+    const loadMoreTransactions = async () => {
+        try {
+            setLoadingMore(true);
+            const response = await walletService.getUserTransactions(user.id, nextCursor);
+            setTransactions(prev => [...prev, ...(response.data.content || [])]);
+            setNextCursor(response.data.hasNext ? response.data.nextCursor : null);
+        } catch (error) {
+            console.error("Error fetching transactions:", error);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const formatCurrency = (amount) => {
         return new Intl.NumberFormat('en-IN', {
             style: 'currency',
@@ -122,9 +140,7 @@ const WalletPage = () => {
                             </div>
                             <p className="text-gray-400 text-sm">Total Spent</p>
                             <p className="text-2xl font-bold mt-1">
-                                {formatCurrency(transactions
-                                    .filter(t => t.transactionType === 'USER_PAYMENT')
-                                    .reduce((acc, t) => acc + t.amount, 0))}
+                                {formatCurrency(totals.USER_PAYMENT || 0)}
                             </p>
                         </div>
                         <div className="bg-[#0f172a]/50 p-6 rounded-2xl border border-white/10">
@@ -133,9 +149,7 @@ const WalletPage = () => {
                             </div>
                             <p className="text-gray-400 text-sm">Total Refunded</p>
                             <p className="text-2xl font-bold mt-1 text-green-400">
-                                {formatCurrency(transactions
-                                    .filter(t => t.transactionType === 'USER_REFUND')
-                                    .reduce((acc, t) => acc + t.amount, 0))}
+                                {formatCurrency(totals.USER_REFUND || 0)}
                             </p>
                         </div>
                     </div>
@@ -205,6 +219,17 @@ const WalletPage = () => {
                             </tbody>
                         </table>
                     </div>
+                    {nextCursor && (
+                        <div className="p-4 border-t border-white/10 text-center">
+                            <button
+                                onClick={loadMoreTransactions}
+                                disabled={loadingMore}
+                                className="px-4 py-2 text-sm font-medium rounded-lg bg-white/5 border border-white/10 hover:bg-white/10 transition-colors disabled:opacity-50"
+                            >
+                                {loadingMore ? 'Loading...' : 'Load older transactions'}
+                            </button>
+                        </div>
+                    )}
                 </div>
 
             </div>
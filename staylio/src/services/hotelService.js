@@ -143,9 +143,12 @@ const hotelService = {
     return response.data;
   },
 
-  // Get hotel reviews
-  getHotelReviews: async (hotelId) => {
-    const response = await hotelApi.get(`/reviews/hotel/${hotelId}`);
+  // Get one page of hotel reviews, newest first: { content, hasNext, nextCursor }.
+  // Pass the previous page's nextCursor to get the next one.
+  getHotelReviews: async (hotelId, cursor) => {
+    const response = await hotelApi.get(`/reviews/hotel/${hotelId}`, {
+      params: { cursor }
+    });
     return response.data;
   },
 
@@ -3,8 +3,14 @@ import axios from 'axios';
 const API_URL = `${import.meta.env.VITE_API_URL}/wallet`;
 
 const walletService = {
+  // The wallet with its latest transactions, per-type totals and a cursor for older ones
   getUserWallet: async (userId) => {
     return axios.get(`${API_URL}/user/${userId}`);
+  },
+
+  // Older transactions, starting after the cursor from the previous page
+  getUserTransactions: async (userId, cursor) => {
+    return axios.get(`${API_URL}/user/${userId}/transactions`, { params: { cursor } });
   }
 };
 